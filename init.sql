@@ -18,7 +18,10 @@ CREATE TABLE ship
     speed    DOUBLE      NULL,
     crewSize INT(4)      NULL,
     rating   DOUBLE      NULL,
-    PRIMARY KEY (id)
+    PRIMARY KEY (id),
+    INDEX ship_speed_id (speed, id),
+    INDEX ship_prodDate_id (prodDate, id),
+    INDEX ship_rating_id (rating, id)
 )
     ENGINE = InnoDB
     DEFAULT CHARACTER SET = utf8;
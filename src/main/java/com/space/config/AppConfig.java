@@ -1,12 +1,28 @@
 package com.space.config;
 
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.space.model.Ship;
+import com.space.repository.ShipReactiveRepository;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
@@ -15,22 +31,45 @@ import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
 import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+import static io.r2dbc.spi.ConnectionFactoryOptions.DATABASE;
+import static io.r2dbc.spi.ConnectionFactoryOptions.DRIVER;
+import static io.r2dbc.spi.ConnectionFactoryOptions.PASSWORD;
+import static io.r2dbc.spi.ConnectionFactoryOptions.PROTOCOL;
+import static io.r2dbc.spi.ConnectionFactoryOptions.USER;
 import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
 
 @Configuration
 @EnableTransactionManagement
 @ComponentScan("com.space.service")
 @EnableJpaRepositories(basePackages = "com.space.repository")
+@PropertySource("classpath:application.properties")
 public class AppConfig {
 
     @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
+    public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+        return new PropertySourcesPlaceholderConfigurer();
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
-        em.setDataSource(dataSource());
+        em.setDataSource(dataSource);
         em.setPackagesToScan("com.space.model");
 
         JpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
@@ -40,21 +79,135 @@ public class AppConfig {
         return em;
     }
 
+    @Value("${ships.l2cache.maximumSize:10000}")
+    private long l2cacheMaximumSize;
+
+    @Value("${ships.l2cache.queryMaximumSize:1000}")
+    private long l2cacheQueryMaximumSize;
+
+    @Value("${ships.l2cache.expireAfterWriteSeconds:300}")
+    private long l2cacheExpireAfterWriteSeconds;
+
+    @Value("${ships.pool.maximumPoolSize:10}")
+    private int poolMaximumSize;
+
+    @Value("${ships.pool.minimumIdle:10}")
+    private int poolMinimumIdle;
+
+    @Value("${ships.pool.connectionTimeout:30000}")
+    private long poolConnectionTimeout;
+
+    @Value("${ships.pool.validationTimeout:5000}")
+    private long poolValidationTimeout;
+
+    @Value("${ships.pool.idleTimeout:600000}")
+    private long poolIdleTimeout;
+
+    @Value("${ships.pool.maxLifetime:1800000}")
+    private long poolMaxLifetime;
+
+    @Value("${ships.pool.leakDetectionThreshold:60000}")
+    private long poolLeakDetectionThreshold;
+
+    @Value("${ships.pool.prepStmtCacheSize:250}")
+    private int prepStmtCacheSize;
+
+    @Value("${ships.pool.prepStmtCacheSqlLimit:2048}")
+    private int prepStmtCacheSqlLimit;
+
+    @Value("${ships.replica.urls:}")
+    private String[] replicaUrls;
+
+    @Value("${ships.replica.devReplicas:0}")
+    private int devReplicas;
+
+    @Value("${ships.replica.maxLagMillis:1000}")
+    private long replicaMaxLagMillis;
+
+    @Value("${ships.reactive.url:r2dbc:mysql://localhost:3306/cosmoport?serverZoneId=UTC}")
+    private String reactiveUrl;
+
+    @Value("${ships.reactive.pool.initialSize:2}")
+    private int reactivePoolInitialSize;
+
+    @Value("${ships.reactive.pool.maxSize:20}")
+    private int reactivePoolMaxSize;
+
+    @Value("${ships.reactive.pool.maxIdleMillis:600000}")
+    private long reactivePoolMaxIdleMillis;
+
+    // the routing decision needs the transaction's read-only flag, so connections are fetched lazily
+    @Bean
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
     @Profile("prod")
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource routingDataSource() {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (!url.trim().isEmpty())
+                replicas.add(pool("cosmoport-replica-" + replicas.size(), url.trim(), true));
+        }
+
+        HikariDataSource primary = pool("cosmoport", "jdbc:mysql://localhost:3306/cosmoport?serverTimezone=UTC&useCursorFetch=true&rewriteBatchedStatements=true", false);
+        return new ReadWriteRoutingDataSource(primary, replicas, replicaLagGuard());
+    }
+
+    // connections are checked with the JDBC4 isValid() on borrow, so no test query is configured.
+    // Only the primary pool reports to /rest/stats/pool
+    private HikariDataSource pool(String name, String url, boolean replica) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setJdbcUrl(url);
+        config.setUsername("root");
+        config.setPassword("root");
+        config.setReadOnly(replica);
+
+        config.setMaximumPoolSize(poolMaximumSize);
+        config.setMinimumIdle(poolMinimumIdle);
+        config.setConnectionTimeout(poolConnectionTimeout);
+        config.setValidationTimeout(poolValidationTimeout);
+        config.setIdleTimeout(poolIdleTimeout);
+        config.setMaxLifetime(poolMaxLifetime);
+        config.setLeakDetectionThreshold(poolLeakDetectionThreshold);
+
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", prepStmtCacheSize);
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", prepStmtCacheSqlLimit);
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+
+        if (!replica)
+            config.setMetricsTrackerFactory(connectionPoolMetrics());
+
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    public ConnectionPoolMetrics connectionPoolMetrics() {
+        return new ConnectionPoolMetrics();
+    }
+
     @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://localhost:3306/cosmoport?serverTimezone=UTC");
-        dataSource.setUsername("root");
-        dataSource.setPassword("root");
-        return dataSource;
+    public ReplicaLagGuard replicaLagGuard() {
+        return new ReplicaLagGuard(replicaMaxLagMillis);
     }
 
+    // the embedded replicas start from the same script but are not replicated to,
+    // so they are only useful for exercising the routing itself
     @Profile("dev")
-    @Bean(name = "dataSource")
-    public DataSource dataSourceForTests() {
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource routingDataSourceForTests() {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < devReplicas; i++)
+            replicas.add(embeddedDatabase());
+
+        return new ReadWriteRoutingDataSource(embeddedDatabase(), replicas, replicaLagGuard());
+    }
 
+    private DataSource embeddedDatabase() {
         return new EmbeddedDatabaseBuilder()
                 .generateUniqueName(true)
                 .setType(H2)
@@ -64,6 +217,73 @@ public class AppConfig {
                 .build();
     }
 
+    // the non-blocking connections of the reactive API, to the same database as the primary pool
+    @Profile("prod")
+    @Bean(destroyMethod = "close")
+    public ConnectionPool connectionFactory() {
+        ConnectionFactory mysql = ConnectionFactories.get(ConnectionFactoryOptions.parse(reactiveUrl).mutate()
+                .option(USER, "root")
+                .option(PASSWORD, "root")
+                .build());
+
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(mysql)
+                .name("cosmoport-reactive")
+                .initialSize(reactivePoolInitialSize)
+                .maxSize(reactivePoolMaxSize)
+                .maxIdleTime(Duration.ofMillis(reactivePoolMaxIdleMillis))
+                .build());
+    }
+
+    // the reactive API sees the same in-memory database as JPA, found by the primary's URL
+    @Profile("dev")
+    @Bean
+    public ConnectionFactory connectionFactoryForTests(ReadWriteRoutingDataSource routingDataSource) throws SQLException {
+        String url;
+        try (Connection connection = routingDataSource.getConnection()) {
+            url = connection.getMetaData().getURL();
+        }
+        String name = url.substring("jdbc:h2:mem:".length()).split(";")[0];
+
+        return ConnectionFactories.get(ConnectionFactoryOptions.builder()
+                .option(DRIVER, "h2")
+                .option(PROTOCOL, "mem")
+                .option(DATABASE, name)
+                .option(USER, "sa")
+                .build());
+    }
+
+    @Bean
+    public ShipReactiveRepository shipReactiveRepository(ConnectionFactory connectionFactory) {
+        return new ShipReactiveRepository(connectionFactory);
+    }
+
+    // Regions of the Hibernate second-level cache. Ships and query results are bounded and expire;
+    // the update timestamps, which tell whether a cached query result is stale, must do neither
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // the provider is JVM-wide: every application context gets a manager of its own
+        CacheManager cacheManager = provider.getCacheManager(URI.create("cosmoport-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        cacheManager.createCache(Ship.class.getName(), boundedRegion(l2cacheMaximumSize));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, boundedRegion(l2cacheQueryMaximumSize));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+
+        return cacheManager;
+    }
+
+    private CaffeineConfiguration<Object, Object> boundedRegion(long maximumSize) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(l2cacheExpireAfterWriteSeconds)));
+        return configuration;
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
     @Bean
     public PlatformTransactionManager transactionManager(EntityManagerFactory emf) {
         JpaTransactionManager transactionManager = new JpaTransactionManager();
@@ -81,6 +301,16 @@ public class AppConfig {
         Properties properties = new Properties();
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
 
+        properties.setProperty("hibernate.cache.use_second_level_cache", "true");
+        properties.setProperty("hibernate.cache.use_query_cache", "true");
+        properties.setProperty("hibernate.cache.region.factory_class", "jcache");
+        properties.put("hibernate.javax.cache.cache_manager", secondLevelCacheManager());
+        // every region is created above, a missing one is a misconfiguration
+        properties.setProperty("hibernate.javax.cache.missing_cache_strategy", "fail");
+        // counters for /rest/stats/l2cache, without the per-session log lines
+        properties.setProperty("hibernate.generate_statistics", "true");
+        properties.setProperty("hibernate.session.events.log", "false");
+
         return properties;
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.space.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Counters of the Hikari pool behind the prod DataSource, for sizing it:
+// how long callers wait for a connection, how long they hold it and how often they give up.
+// The pool gauges are Hikari's PoolStats, refreshed at most once a second.
+// Without a pool (the dev H2 database) only the counters are reported, all zero.
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final AtomicLong acquiredCount = new AtomicLong();
+    private final AtomicLong acquireNanos = new AtomicLong();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final AtomicLong usageMillis = new AtomicLong();
+    private final AtomicLong maxUsageMillis = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new Tracker();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        PoolStats stats = poolStats;
+        statistics.put("pooled", stats != null);
+        if (stats != null) {
+            statistics.put("activeConnections", stats.getActiveConnections());
+            statistics.put("idleConnections", stats.getIdleConnections());
+            statistics.put("totalConnections", stats.getTotalConnections());
+            statistics.put("pendingThreads", stats.getPendingThreads());
+            statistics.put("maxConnections", stats.getMaxConnections());
+        }
+        long acquired = acquiredCount.get();
+        statistics.put("acquiredCount", acquired);
+        statistics.put("averageAcquireMillis", acquired == 0 ? 0.0 : toMillis(acquireNanos.get()) / acquired);
+        statistics.put("maxAcquireMillis", toMillis(maxAcquireNanos.get()));
+        statistics.put("averageUsageMillis", acquired == 0 ? 0.0 : (double) usageMillis.get() / acquired);
+        statistics.put("maxUsageMillis", maxUsageMillis.get());
+        statistics.put("timeoutCount", timeoutCount.get());
+        statistics.put("createdCount", createdCount.get());
+        return statistics;
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private class Tracker implements IMetricsTracker {
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            createdCount.incrementAndGet();
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquiredCount.incrementAndGet();
+            acquireNanos.addAndGet(elapsedAcquiredNanos);
+            maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageMillis.addAndGet(elapsedBorrowedMillis);
+            maxUsageMillis.accumulateAndGet(elapsedBorrowedMillis, Math::max);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeoutCount.incrementAndGet();
+        }
+    }
+}
@@ -1,9 +1,18 @@
 package com.space.config;
 
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
 import org.springframework.web.servlet.support.AbstractAnnotationConfigDispatcherServletInitializer;
 
 import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRegistration;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class MyWebAppInit extends AbstractAnnotationConfigDispatcherServletInitializer {
 
@@ -11,6 +20,7 @@ public class MyWebAppInit extends AbstractAnnotationConfigDispatcherServletIniti
     public void onStartup(ServletContext servletContext) throws ServletException {
         super.onStartup(servletContext);
         servletContext.setInitParameter("spring.profiles.active", "prod");
+        registerReactiveServlet(servletContext);
     }
 
     @Override
@@ -28,4 +38,32 @@ public class MyWebAppInit extends AbstractAnnotationConfigDispatcherServletIniti
         return new String[]{"/"};
     }
 
+    // The reactive API under /reactive/*. Its context needs the root context as parent, which is
+    // only refreshed by the ContextLoaderListener, so it is built by a listener registered after it
+    private void registerReactiveServlet(ServletContext servletContext) {
+        AnnotationConfigApplicationContext reactiveContext = new AnnotationConfigApplicationContext();
+        reactiveContext.register(ReactiveConfig.class);
+        AtomicReference<HttpHandler> httpHandler = new AtomicReference<>();
+
+        servletContext.addListener(new ServletContextListener() {
+            @Override
+            public void contextInitialized(ServletContextEvent event) {
+                reactiveContext.setParent(WebApplicationContextUtils.getRequiredWebApplicationContext(event.getServletContext()));
+                reactiveContext.refresh();
+                httpHandler.set(WebHttpHandlerBuilder.applicationContext(reactiveContext).build());
+            }
+
+            @Override
+            public void contextDestroyed(ServletContextEvent event) {
+                reactiveContext.close();
+            }
+        });
+
+        ServletRegistration.Dynamic registration = servletContext.addServlet("reactive",
+                new ServletHttpHandlerAdapter((request, response) -> httpHandler.get().handle(request, response)));
+        registration.addMapping("/reactive/*");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.space.config;
+
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Sends read-only transactions round robin to the replicas and everything else to the primary.
+// The transaction's read-only flag is only known once it has begun, so this has to sit behind a
+// LazyConnectionDataSourceProxy that fetches the real connection at the first statement.
+// Connections outside a transaction go to the primary, as do the reads of a client that has
+// just written, until the replicas can be trusted to have caught up (ReplicaLagGuard).
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica-";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final ReplicaLagGuard lagGuard;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ThreadLocal<Integer> pinnedReplica = new ThreadLocal<>();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaLagGuard lagGuard) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.lagGuard = lagGuard;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++)
+            targets.put(REPLICA + i, this.replicas.get(i));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive())
+            return PRIMARY;
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // the client's lag window starts when its write is visible on the primary
+            String client = lagGuard.getCurrentClient();
+            if (client != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        lagGuard.recordWrite(client);
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+
+        Integer pinned = pinnedReplica.get();
+        if (pinned != null)
+            return REPLICA + pinned;
+
+        if (replicas.isEmpty() || lagGuard.mustReadPrimary())
+            return PRIMARY;
+
+        return REPLICA + nextReplica();
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    public int nextReplica() {
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    // read-only transactions started by the work go to the given replica, whatever the lag guard says
+    public <T> T onReplica(int index, Supplier<T> work) {
+        pinnedReplica.set(index);
+        try {
+            return work.get();
+        } finally {
+            pinnedReplica.remove();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas)
+            closeIfPossible(replica);
+        closeIfPossible(primary);
+    }
+
+    private static void closeIfPossible(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable)
+            ((AutoCloseable) dataSource).close();
+        else if (dataSource instanceof EmbeddedDatabase)
+            ((EmbeddedDatabase) dataSource).shutdown();
+    }
+}
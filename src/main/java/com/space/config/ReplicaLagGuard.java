@@ -0,0 +1,68 @@
+package com.space.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+// Read-your-writes over lagging replicas: once a client has committed a write, its reads go to
+// the primary for maxLagMillis. A client is the X-Client-Id header of the request, or its remote
+// address without one; work outside a request has no client and is never pinned.
+public class ReplicaLagGuard implements AsyncHandlerInterceptor {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private static final int MAX_TRACKED_CLIENTS = 100_000;
+
+    private final ThreadLocal<String> currentClient = new ThreadLocal<>();
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReplicaLagGuard(long maxLagMillis) {
+        recentWriters = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_CLIENTS)
+                .expireAfterWrite(maxLagMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        setCurrentClient(clientId != null && !clientId.isEmpty() ? clientId : request.getRemoteAddr());
+        return true;
+    }
+
+    // the handler continues on a pool thread, which sets the client itself
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        clearCurrentClient();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        clearCurrentClient();
+    }
+
+    public String getCurrentClient() {
+        return currentClient.get();
+    }
+
+    public void setCurrentClient(String client) {
+        currentClient.set(client);
+    }
+
+    public void clearCurrentClient() {
+        currentClient.remove();
+    }
+
+    public void recordWrite(String client) {
+        recentWriters.put(client, Boolean.TRUE);
+    }
+
+    public boolean mustReadPrimary() {
+        String client = currentClient.get();
+        return client != null && recentWriters.getIfPresent(client) != null;
+    }
+}
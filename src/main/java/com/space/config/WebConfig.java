@@ -2,13 +2,23 @@ package com.space.config;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.ShipReactiveController;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -19,9 +29,26 @@ import java.util.List;
 
 @Configuration
 @EnableWebMvc
-@ComponentScan("com.space.controller")
+// the reactive controller belongs to ReactiveConfig's context
+@ComponentScan(value = "com.space.controller", excludeFilters = @ComponentScan.Filter(
+        type = FilterType.ASSIGNABLE_TYPE, classes = ShipReactiveController.class))
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+
+    @Value("${ships.async.virtualThreads:false}")
+    private boolean virtualThreads;
+
+    @Value("${ships.stream.threads:16}")
+    private int streamThreads;
+
+    @Value("${ships.stream.queueCapacity:32}")
+    private int streamQueueCapacity;
+
+    // -1 for no limit
+    @Value("${ships.stream.timeoutMillis:1800000}")
+    private long streamTimeoutMillis;
 
     @Bean
     public ViewResolver internalResourceViewResolver() {
@@ -42,11 +69,52 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/resources/**").addResourceLocations("/resources/");
     }
 
+    // tells the replica routing which client a request belongs to
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(replicaLagGuard);
+    }
+
+    // the streaming endpoints block on the database while writing, on a bounded pool or on a
+    // virtual thread each in the virtual thread mode; virtual threads are daemons, so nothing to
+    // shut down. The handlers on ShipRequestExecutors carry timeouts of their own, so the default
+    // timeout only bounds the streamed responses, which may take long for a big export
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if (virtualThreads)
+            configurer.setTaskExecutor(new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("ship-stream")));
+        else
+            configurer.setTaskExecutor(streamTaskExecutor());
+        configurer.setDefaultTimeout(streamTimeoutMillis);
+    }
+
+    // a full queue fails the request with TaskRejectedException, answered with 503
+    @Bean
+    public ThreadPoolTaskExecutor streamTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamThreads);
+        executor.setMaxPoolSize(streamThreads);
+        executor.setQueueCapacity(streamQueueCapacity);
+        executor.setThreadNamePrefix("ship-stream-");
+        return executor;
+    }
+
+    // shared by the message converter and the streaming endpoints, which write JSON themselves
+    @Bean
+    public ObjectMapper objectMapper() {
+        return newObjectMapper();
+    }
+
+    // the reactive API writes ships the same way
+    static ObjectMapper newObjectMapper() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return objectMapper;
+    }
+
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
-        converter.getObjectMapper().setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
-        converter.getObjectMapper().setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
-        converters.add(converter);
+        converters.add(new MappingJackson2HttpMessageConverter(objectMapper()));
     }
 }
\ No newline at end of file
@@ -1,24 +1,61 @@
 package com.space.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipImportResult;
+import com.space.model.ShipSearchResult;
+import com.space.model.ShipSuggestion;
 import com.space.model.ShipType;
-import com.space.service.ShipServiceImpl;
+import com.space.service.ShipCursor;
+import com.space.service.ShipService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/rest")
 public class ShipController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String CSV_HEADER = "id,name,planet,shipType,prodDate,isUsed,speed,crewSize,rating";
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private ShipService shipService;
+
     @Autowired
-    private ShipServiceImpl shipService;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShipRequestExecutors requestExecutors;
 
     @GetMapping("/ships")
-    public List<Ship> getAllShips(
+    public DeferredResult<ResponseEntity<List<Ship>>> getAllShips(
             @RequestParam(value = "name", required = false) String name,
             @RequestParam(value = "planet", required = false) String planet,
             @RequestParam(value = "shipType", required = false) ShipType shipType,
@@ -33,9 +70,56 @@ public class ShipController {
             @RequestParam(value = "maxRating", required = false) Double maxRating,
             @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
             @RequestParam(value = "pageSize", required = false) Integer pageSize,
-            @RequestParam(value = "order", required = false) ShipOrder order
+            @RequestParam(value = "order", required = false) ShipOrder order,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "fuzzy", required = false) Boolean fuzzy
     ) {
-        return shipService.getShips(
+        return requestExecutors.read(() -> findShips(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating, pageNumber, pageSize, order, cursor, fuzzy));
+    }
+
+    private ResponseEntity<List<Ship>> findShips(
+            String name,
+            String planet,
+            ShipType shipType,
+            Long after,
+            Long before,
+            Boolean isUsed,
+            Double minSpeed,
+            Double maxSpeed,
+            Integer minCrewSize,
+            Integer maxCrewSize,
+            Double minRating,
+            Double maxRating,
+            Integer pageNumber,
+            Integer pageSize,
+            ShipOrder order,
+            String cursor,
+            Boolean fuzzy
+    ) {
+        if (cursor != null || Boolean.TRUE.equals(fuzzy)) {
+            ShipFilter filter = new ShipFilter(
+                    name,
+                    planet,
+                    shipType,
+                    after,
+                    before,
+                    isUsed,
+                    minSpeed,
+                    maxSpeed,
+                    minCrewSize,
+                    maxCrewSize,
+                    minRating,
+                    maxRating);
+            if (cursor == null)
+                return new ResponseEntity<>(shipService.searchShipsFuzzy(filter, pageNumber, pageSize, order).getShips(), HttpStatus.OK);
+            // keyset pages have no relevance key to seek from
+            if (Boolean.TRUE.equals(fuzzy))
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            return getShipsAfterCursor(filter, cursor, pageSize, order);
+        }
+
+        List<Ship> ships = shipService.getShips(
                 name,
                 planet,
                 shipType,
@@ -52,10 +136,274 @@ public class ShipController {
                 pageSize,
                 order
         );
+        return new ResponseEntity<>(ships, HttpStatus.OK);
+    }
+
+    // keyset mode: an empty cursor asks for the first page, the next one comes back in NEXT_CURSOR_HEADER
+    private ResponseEntity<List<Ship>> getShipsAfterCursor(ShipFilter filter, String cursor, Integer pageSize, ShipOrder order) {
+        List<Ship> ships;
+        try {
+            ShipCursor shipCursor = cursor.isEmpty() ? null : ShipCursor.decode(cursor);
+            ships = shipService.getShipsAfter(filter, shipCursor, pageSize, order);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        if (!ships.isEmpty())
+            headers.set(NEXT_CURSOR_HEADER, ShipCursor.after(ships.get(ships.size() - 1), order).encode());
+
+        return new ResponseEntity<>(ships, headers, HttpStatus.OK);
+    }
+
+    // same rows as GET /ships, written while they are read from a database cursor; on the
+    // streaming pool and with the timeout of /ships/export (see WebConfig.configureAsyncSupport)
+    @GetMapping("/ships/stream")
+    public ResponseEntity<StreamingResponseBody> streamShips(
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "planet", required = false) String planet,
+            @RequestParam(value = "shipType", required = false) ShipType shipType,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+            @RequestParam(value = "minRating", required = false) Double minRating,
+            @RequestParam(value = "maxRating", required = false) Double maxRating,
+            @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize,
+            @RequestParam(value = "order", required = false) ShipOrder order
+    ) {
+        ShipFilter filter = new ShipFilter(
+                name,
+                planet,
+                shipType,
+                after,
+                before,
+                isUsed,
+                minSpeed,
+                maxSpeed,
+                minCrewSize,
+                maxCrewSize,
+                minRating,
+                maxRating);
+
+        // the generator buffers; flushing after every ship would send one chunk per ship
+        ObjectWriter writer = objectMapper.writerFor(Ship.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.writeStartArray();
+            shipService.streamShips(filter, pageNumber, pageSize, order, ship -> writeShip(writer, generator, ship));
+            generator.writeEndArray();
+            generator.flush();
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(body);
+    }
+
+    private void writeShip(ObjectWriter writer, JsonGenerator generator, Ship ship) {
+        try {
+            writer.writeValue(generator, ship);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // the whole filtered table as NDJSON or CSV, gzipped on the fly when the client accepts it
+    @GetMapping("/ships/export")
+    public ResponseEntity<StreamingResponseBody> exportShips(
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "planet", required = false) String planet,
+            @RequestParam(value = "shipType", required = false) ShipType shipType,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+            @RequestParam(value = "minRating", required = false) Double minRating,
+            @RequestParam(value = "maxRating", required = false) Double maxRating,
+            @RequestParam(value = "order", required = false) ShipOrder order,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        ShipExportFormat exportFormat;
+        try {
+            exportFormat = format == null ? ShipExportFormat.NDJSON : ShipExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        ShipFilter filter = new ShipFilter(
+                name,
+                planet,
+                shipType,
+                after,
+                before,
+                isUsed,
+                minSpeed,
+                maxSpeed,
+                minCrewSize,
+                maxCrewSize,
+                minRating,
+                maxRating);
+
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ObjectWriter writer = objectMapper.writerFor(Ship.class);
+
+        StreamingResponseBody body = outputStream -> {
+            GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE) : null;
+            Writer out = new BufferedWriter(new OutputStreamWriter(gzip ? gzipStream : outputStream,
+                    StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+
+            if (exportFormat == ShipExportFormat.CSV)
+                writeLine(out, CSV_HEADER);
+            shipService.exportShips(filter, order, ship -> writeLine(out,
+                    exportFormat == ShipExportFormat.CSV ? toCsvLine(ship) : toJsonLine(writer, ship)));
+
+            out.flush();
+            if (gzip)
+                gzipStream.finish();
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, exportFormat.getContentType() + ";charset=UTF-8");
+        headers.set(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"ships." + exportFormat.name().toLowerCase(Locale.ROOT) + "\"");
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip)
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    // gzip when the client names it, or "*", with a q-value above 0; a named gzip wins over "*"
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+
+        Double gzip = null;
+        Double any = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parameters = element.split(";");
+            String coding = parameters[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim().toLowerCase(Locale.ROOT);
+                if (!parameter.startsWith("q="))
+                    continue;
+                try {
+                    quality = Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    quality = 0;
+                }
+            }
+
+            if (coding.equals("gzip") || coding.equals("x-gzip"))
+                gzip = quality;
+            else if (coding.equals("*"))
+                any = quality;
+        }
+
+        if (gzip != null)
+            return gzip > 0;
+        return any != null && any > 0;
+    }
+
+    private static void writeLine(Writer out, String line) {
+        try {
+            out.write(line);
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toJsonLine(ObjectWriter writer, Ship ship) {
+        try {
+            return writer.writeValueAsString(ship);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // prodDate in epoch milliseconds, as in the JSON endpoints
+    private static String toCsvLine(Ship ship) {
+        return ship.getId() + ","
+                + toCsvField(ship.getName()) + ","
+                + toCsvField(ship.getPlanet()) + ","
+                + (ship.getShipType() == null ? "" : ship.getShipType().name()) + ","
+                + (ship.getProdDate() == null ? "" : ship.getProdDate().getTime()) + ","
+                + (ship.getUsed() == null ? "" : ship.getUsed()) + ","
+                + (ship.getSpeed() == null ? "" : ship.getSpeed()) + ","
+                + (ship.getCrewSize() == null ? "" : ship.getCrewSize()) + ","
+                + (ship.getRating() == null ? "" : ship.getRating());
+    }
+
+    private static String toCsvField(String value) {
+        if (value == null)
+            return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @GetMapping("/ships/suggest")
+    public DeferredResult<ResponseEntity<List<ShipSuggestion>>> suggest(
+            @RequestParam(value = "prefix", required = false) String prefix,
+            @RequestParam(value = "field", required = false) ShipSuggestField field,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        return requestExecutors.read(() -> new ResponseEntity<>(shipService.suggest(field, prefix, limit), HttpStatus.OK));
+    }
+
+    @GetMapping("/ships/search")
+    public DeferredResult<ResponseEntity<ShipSearchResult>> searchShips(
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "planet", required = false) String planet,
+            @RequestParam(value = "shipType", required = false) ShipType shipType,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+            @RequestParam(value = "minRating", required = false) Double minRating,
+            @RequestParam(value = "maxRating", required = false) Double maxRating,
+            @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize,
+            @RequestParam(value = "order", required = false) ShipOrder order,
+            @RequestParam(value = "fuzzy", required = false) Boolean fuzzy
+    ) {
+        ShipFilter filter = new ShipFilter(
+                name,
+                planet,
+                shipType,
+                after,
+                before,
+                isUsed,
+                minSpeed,
+                maxSpeed,
+                minCrewSize,
+                maxCrewSize,
+                minRating,
+                maxRating);
+
+        return requestExecutors.read(() -> {
+            if (Boolean.TRUE.equals(fuzzy))
+                return new ResponseEntity<>(shipService.searchShipsFuzzy(filter, pageNumber, pageSize, order), HttpStatus.OK);
+
+            return new ResponseEntity<>(shipService.searchShips(filter, pageNumber, pageSize, order), HttpStatus.OK);
+        });
     }
 
     @GetMapping("/ships/count")
-    public int getShipsCount(@RequestParam(value = "name", required = false) String name,
+    public DeferredResult<ResponseEntity<Integer>> getShipsCount(@RequestParam(value = "name", required = false) String name,
                              @RequestParam(value = "planet", required = false) String planet,
                              @RequestParam(value = "shipType", required = false) ShipType shipType,
                              @RequestParam(value = "after", required = false) Long after,
@@ -70,9 +418,7 @@ public class ShipController {
                              @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
                              @RequestParam(value = "pageSize", required = false) Integer pageSize,
                              @RequestParam(value = "order", required = false) ShipOrder order) {
-        List<Ship> shipsList = shipService.getAllShips();
-        return shipService.filterShips(
-                shipsList,
+        return requestExecutors.read(() -> new ResponseEntity<>(Math.toIntExact(shipService.countShips(
                 name,
                 planet,
                 shipType,
@@ -85,12 +431,15 @@ public class ShipController {
                 maxCrewSize,
                 minRating,
                 maxRating
-        ).size();
+        )), HttpStatus.OK));
     }
 
     @PostMapping("/ships")
-    public ResponseEntity<Ship> createShip(@RequestBody Ship newShip) {
+    public DeferredResult<ResponseEntity<Ship>> createShip(@RequestBody Ship newShip) {
+        return requestExecutors.write(() -> create(newShip));
+    }
 
+    private ResponseEntity<Ship> create(Ship newShip) {
         if (newShip.getUsed() == null) newShip.setUsed(false);
 
         if (!shipService.isShipValid(newShip))
@@ -106,8 +455,27 @@ public class ShipController {
         return new ResponseEntity<>(createdShip, HttpStatus.OK);
     }
 
+    // a JSON array or newline-delimited JSON, read one ship at a time
+    @PostMapping("/ships/bulk")
+    public ResponseEntity<ShipImportResult> importShips(InputStream body) throws IOException {
+        try (MappingIterator<Ship> ships = objectMapper.readerFor(Ship.class).readValues(body)) {
+            return new ResponseEntity<>(shipService.importShips(ships), HttpStatus.OK);
+        } catch (JsonProcessingException | RuntimeJsonMappingException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            // MappingIterator wraps parse errors met while iterating
+            if (e.getCause() instanceof JsonProcessingException)
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            throw e;
+        }
+    }
+
     @GetMapping("/ships/{id}")
-    public ResponseEntity<Ship> getShip(@PathVariable(value = "id") String shipId) {
+    public DeferredResult<ResponseEntity<Ship>> getShip(@PathVariable(value = "id") String shipId) {
+        return requestExecutors.read(() -> findShip(shipId));
+    }
+
+    private ResponseEntity<Ship> findShip(String shipId) {
         Long id = convertStringIdToLong(shipId);
 
         if (id == null)
@@ -122,43 +490,148 @@ public class ShipController {
         }
     }
 
+    // set-based updates and deletes over the ships matching the list filters; they return the number of ships affected
+    @PatchMapping("/ships")
+    public DeferredResult<ResponseEntity<Long>> updateShips(
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "planet", required = false) String planet,
+            @RequestParam(value = "shipType", required = false) ShipType shipType,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+            @RequestParam(value = "minRating", required = false) Double minRating,
+            @RequestParam(value = "maxRating", required = false) Double maxRating,
+            @RequestBody Ship changes
+    ) {
+        ShipFilter filter = new ShipFilter(
+                name,
+                planet,
+                shipType,
+                after,
+                before,
+                isUsed,
+                minSpeed,
+                maxSpeed,
+                minCrewSize,
+                maxCrewSize,
+                minRating,
+                maxRating);
+
+        return requestExecutors.write(() -> {
+            try {
+                return new ResponseEntity<>(shipService.updateShips(filter, changes), HttpStatus.OK);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        });
+    }
+
+    @DeleteMapping("/ships")
+    public DeferredResult<ResponseEntity<Long>> deleteShips(
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "planet", required = false) String planet,
+            @RequestParam(value = "shipType", required = false) ShipType shipType,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+            @RequestParam(value = "minRating", required = false) Double minRating,
+            @RequestParam(value = "maxRating", required = false) Double maxRating
+    ) {
+        ShipFilter filter = new ShipFilter(
+                name,
+                planet,
+                shipType,
+                after,
+                before,
+                isUsed,
+                minSpeed,
+                maxSpeed,
+                minCrewSize,
+                maxCrewSize,
+                minRating,
+                maxRating);
+
+        return requestExecutors.write(() -> {
+            try {
+                return new ResponseEntity<>(shipService.deleteShips(filter), HttpStatus.OK);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        });
+    }
+
     @DeleteMapping("/ships/{id}")
-    public ResponseEntity<Ship> deleteShip(@PathVariable(value = "id") String pathId) {
-        ResponseEntity<Ship> responseEntity = getShip(pathId);
+    public DeferredResult<ResponseEntity<Ship>> deleteShip(@PathVariable(value = "id") String pathId) {
+        return requestExecutors.write(() -> delete(pathId));
+    }
 
-        if (responseEntity.getStatusCode().isError())
-            return responseEntity;
+    private ResponseEntity<Ship> delete(String pathId) {
+        Long id = convertStringIdToLong(pathId);
 
-        Ship deletedShip = responseEntity.getBody();
+        if (id == null)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 
-        if (deletedShip == null) {
-            return responseEntity;
+        if (shipService.deleteShip(id)) {
+            return new ResponseEntity<>(HttpStatus.OK);
         } else {
-            shipService.deleteShip(deletedShip.getId());
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // only the given fields are written, in one UPDATE of just those columns
+    @PatchMapping("/ships/{id}")
+    public DeferredResult<ResponseEntity<Ship>> patchShip(@PathVariable(value = "id") String pathId, @RequestBody Ship changes) {
+        return requestExecutors.write(() -> patch(pathId, changes));
+    }
+
+    private ResponseEntity<Ship> patch(String pathId, Ship changes) {
+        Long id = convertStringIdToLong(pathId);
+
+        if (id == null)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+        try {
+            if (!shipService.patchShip(id, changes))
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     @PostMapping("/ships/{id}")
-    public ResponseEntity<Ship> updateShip(@PathVariable(value = "id") String currentShipId, @RequestBody Ship updatedShip) {
-        ResponseEntity<Ship> responseEntity = getShip(currentShipId);
-
-        if (responseEntity.getStatusCode().isError() && responseEntity.getBody() == null)
-            return responseEntity;
+    public DeferredResult<ResponseEntity<Ship>> updateShip(@PathVariable(value = "id") String currentShipId, @RequestBody Ship updatedShip) {
+        return requestExecutors.write(() -> update(currentShipId, updatedShip));
+    }
 
-        Ship currentShip = responseEntity.getBody();
+    // the ship is read for the update on the primary, never from a replica that may lag behind
+    // another client's write
+    private ResponseEntity<Ship> update(String currentShipId, Ship updatedShip) {
+        Long id = convertStringIdToLong(currentShipId);
 
-        if (shipService.isShipEmpty(updatedShip))
-            return new ResponseEntity<>(currentShip, HttpStatus.OK);
+        if (id == null)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 
+        Ship ship;
         try {
-            shipService.updateShip(currentShip, updatedShip);
+            ship = shipService.updateShip(id, updatedShip);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
 
-        return new ResponseEntity<>(currentShip, HttpStatus.OK);
+        if (ship == null)
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+        return new ResponseEntity<>(ship, HttpStatus.OK);
     }
 
     private Long convertStringIdToLong(String idStringValue) {
@@ -174,4 +647,10 @@ public class ShipController {
         return id;
     }
 
+    // the streaming pool behind /ships/stream and /ships/export is full
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Ship> streamRejected() {
+        return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
 }
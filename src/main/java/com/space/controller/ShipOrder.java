@@ -4,7 +4,8 @@ public enum ShipOrder {
     ID("id"), // default
     SPEED("speed"),
     DATE("prodDate"),
-    RATING("rating");
+    RATING("rating"),
+    RELEVANCE("id"); // edit distance of a fuzzy name search, id otherwise
 
     private String fieldName;
 
@@ -0,0 +1,156 @@
+package com.space.controller;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.service.ShipReactiveService;
+import com.space.service.ShipService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// The /rest/ships API of ShipController on WebFlux and R2DBC, served under /reactive (see
+// ReactiveConfig). Same parameters, validation and answers; nothing here blocks a thread.
+// GET /ships as application/stream+json writes each ship as it is read, at the client's pace.
+@RestController
+@RequestMapping("/rest")
+public class ShipReactiveController {
+
+    @Autowired
+    private ShipReactiveService reactiveService;
+
+    @Autowired
+    private ShipService shipService;
+
+    @GetMapping(value = "/ships", produces = {MediaType.APPLICATION_JSON_UTF8_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE})
+    public Flux<Ship> getAllShips(
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "planet", required = false) String planet,
+            @RequestParam(value = "shipType", required = false) ShipType shipType,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+            @RequestParam(value = "minRating", required = false) Double minRating,
+            @RequestParam(value = "maxRating", required = false) Double maxRating,
+            @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize,
+            @RequestParam(value = "order", required = false) ShipOrder order
+    ) {
+        ShipFilter filter = new ShipFilter(
+                name,
+                planet,
+                shipType,
+                after,
+                before,
+                isUsed,
+                minSpeed,
+                maxSpeed,
+                minCrewSize,
+                maxCrewSize,
+                minRating,
+                maxRating);
+
+        return reactiveService.getShips(filter, pageNumber, pageSize, order);
+    }
+
+    @GetMapping("/ships/count")
+    public Mono<Integer> getShipsCount(
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "planet", required = false) String planet,
+            @RequestParam(value = "shipType", required = false) ShipType shipType,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+            @RequestParam(value = "minRating", required = false) Double minRating,
+            @RequestParam(value = "maxRating", required = false) Double maxRating
+    ) {
+        ShipFilter filter = new ShipFilter(
+                name,
+                planet,
+                shipType,
+                after,
+                before,
+                isUsed,
+                minSpeed,
+                maxSpeed,
+                minCrewSize,
+                maxCrewSize,
+                minRating,
+                maxRating);
+
+        return reactiveService.countShips(filter).map(Math::toIntExact);
+    }
+
+    @PostMapping("/ships")
+    public Mono<ResponseEntity<Ship>> createShip(@RequestBody Ship newShip) {
+        if (newShip.getUsed() == null) newShip.setUsed(false);
+
+        if (!shipService.isShipValid(newShip))
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+        newShip.setRating(shipService.calcRating(newShip.getSpeed(), newShip.getUsed(), newShip.getProdDate()));
+
+        return reactiveService.createShip(newShip).map(createdShip -> new ResponseEntity<>(createdShip, HttpStatus.OK));
+    }
+
+    @GetMapping("/ships/{id}")
+    public Mono<ResponseEntity<Ship>> getShip(@PathVariable(value = "id") String shipId) {
+        Long id = convertStringIdToLong(shipId);
+
+        if (id == null)
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+        return reactiveService.getShip(id)
+                .map(ship -> new ResponseEntity<>(ship, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @PostMapping("/ships/{id}")
+    public Mono<ResponseEntity<Ship>> updateShip(@PathVariable(value = "id") String currentShipId, @RequestBody Ship updatedShip) {
+        Long id = convertStringIdToLong(currentShipId);
+
+        if (id == null)
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+        return reactiveService.updateShip(id, updatedShip)
+                .map(ship -> new ResponseEntity<>(ship, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST)));
+    }
+
+    @DeleteMapping("/ships/{id}")
+    public Mono<ResponseEntity<Ship>> deleteShip(@PathVariable(value = "id") String pathId) {
+        Long id = convertStringIdToLong(pathId);
+
+        if (id == null)
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+        return reactiveService.deleteShip(id)
+                .map(deleted -> new ResponseEntity<Ship>(deleted ? HttpStatus.OK : HttpStatus.NOT_FOUND));
+    }
+
+    private Long convertStringIdToLong(String idStringValue) {
+        Long id;
+
+        try {
+            id = Long.parseLong(idStringValue);
+            if (id <= 0) id = null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        return id;
+    }
+}
@@ -0,0 +1,220 @@
+package com.space.controller;
+
+import com.space.config.ReplicaLagGuard;
+import com.space.config.VirtualThreads;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Runs ShipController handlers off the servlet container threads, reads and writes on separate
+// bounded pools so a burst of slow reads cannot starve writes. A full pool queue, or a handler
+// that has not answered within ships.async.timeoutMillis, is answered with 503. A timed-out read
+// is interrupted; a write is not, since that would abort it in the middle of its transaction, and
+// it is bounded by ships.write.transactionTimeoutSeconds instead. So a 503 for a write means its
+// outcome is unknown: it may still commit after the answer.
+// With ships.async.virtualThreads (Java 21+) every handler gets its own virtual thread instead,
+// and the pools only bound the number of requests in flight.
+@Component
+public class ShipRequestExecutors implements InitializingBean, DisposableBean {
+
+    @Value("${ships.async.read.threads:32}")
+    private int readThreads;
+
+    @Value("${ships.async.read.queueCapacity:200}")
+    private int readQueueCapacity;
+
+    @Value("${ships.async.write.threads:8}")
+    private int writeThreads;
+
+    @Value("${ships.async.write.queueCapacity:100}")
+    private int writeQueueCapacity;
+
+    @Value("${ships.async.timeoutMillis:10000}")
+    private long timeoutMillis;
+
+    @Value("${ships.async.virtualThreads:false}")
+    private boolean virtualThreads;
+
+    @Value("${ships.async.virtual.maxConcurrent:10000}")
+    private int virtualMaxConcurrent;
+
+    @Autowired
+    private ReplicaLagGuard lagGuard;
+
+    private Pool readPool;
+    private Pool writePool;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (virtualThreads) {
+            readPool = new Pool("ship-read", true, virtualMaxConcurrent);
+            writePool = new Pool("ship-write", false, virtualMaxConcurrent);
+        } else {
+            readPool = new Pool("ship-read", true, readThreads, readQueueCapacity);
+            writePool = new Pool("ship-write", false, writeThreads, writeQueueCapacity);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        readPool.executor.shutdownNow();
+        writePool.executor.shutdownNow();
+    }
+
+    public <T> DeferredResult<ResponseEntity<T>> read(Supplier<ResponseEntity<T>> handler) {
+        return submit(readPool, handler);
+    }
+
+    public <T> DeferredResult<ResponseEntity<T>> write(Supplier<ResponseEntity<T>> handler) {
+        return submit(writePool, handler);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("virtualThreads", virtualThreads);
+        statistics.put("timeoutMillis", timeoutMillis);
+        statistics.put("read", readPool.getStatistics());
+        statistics.put("write", writePool.getStatistics());
+        return statistics;
+    }
+
+    private <T> DeferredResult<ResponseEntity<T>> submit(Pool pool, Supplier<ResponseEntity<T>> handler) {
+        DeferredResult<ResponseEntity<T>> result = new DeferredResult<>(timeoutMillis,
+                new ResponseEntity<T>(HttpStatus.SERVICE_UNAVAILABLE));
+
+        // the replica routing needs to know whose request this is on the pool thread too
+        String client = lagGuard.getCurrentClient();
+        Future<?> task = pool.submit(() -> {
+            lagGuard.setCurrentClient(client);
+            try {
+                result.setResult(handler.get());
+            } catch (RuntimeException e) {
+                result.setErrorResult(e);
+            } finally {
+                lagGuard.clearCurrentClient();
+            }
+        });
+        if (task == null) {
+            result.setResult(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+            return result;
+        }
+
+        // the callback runs before the timeout result is applied, so the 503 is set first
+        // or the interrupted handler could still answer. A write that has not started is
+        // dropped, one already running is left to finish or hit its transaction timeout
+        result.onTimeout(() -> {
+            pool.timedOut.incrementAndGet();
+            result.setResult(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+            task.cancel(pool.interruptOnTimeout);
+        });
+        return result;
+    }
+
+    private static class Pool {
+
+        private final ExecutorService executor;
+        private final boolean interruptOnTimeout;
+        // platform mode: a fixed pool with a bounded queue
+        private final ThreadPoolExecutor platformExecutor;
+        private final int queueCapacity;
+        // virtual mode: a thread per request, at most maxConcurrent of them
+        private final Semaphore permits;
+        private final int maxConcurrent;
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong timedOut = new AtomicLong();
+
+        Pool(String name, boolean interruptOnTimeout, int threads, int queueCapacity) {
+            this.interruptOnTimeout = interruptOnTimeout;
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.queueCapacity = queueCapacity;
+            platformExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            platformExecutor.allowCoreThreadTimeOut(true);
+            executor = platformExecutor;
+            permits = null;
+            maxConcurrent = 0;
+        }
+
+        Pool(String name, boolean interruptOnTimeout, int maxConcurrent) {
+            this.interruptOnTimeout = interruptOnTimeout;
+            executor = VirtualThreads.newThreadPerTaskExecutor(name);
+            platformExecutor = null;
+            queueCapacity = 0;
+            permits = new Semaphore(maxConcurrent);
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        // null when the request has to be turned away
+        Future<?> submit(Runnable task) {
+            if (permits == null) {
+                try {
+                    return executor.submit(task);
+                } catch (RejectedExecutionException e) {
+                    rejected.incrementAndGet();
+                    return null;
+                }
+            }
+
+            if (!permits.tryAcquire()) {
+                rejected.incrementAndGet();
+                return null;
+            }
+            try {
+                return executor.submit(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        completed.incrementAndGet();
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                rejected.incrementAndGet();
+                return null;
+            }
+        }
+
+        Map<String, Object> getStatistics() {
+            Map<String, Object> statistics = new LinkedHashMap<>();
+            if (platformExecutor != null) {
+                statistics.put("poolSize", platformExecutor.getPoolSize());
+                statistics.put("maximumPoolSize", platformExecutor.getMaximumPoolSize());
+                statistics.put("activeCount", platformExecutor.getActiveCount());
+                statistics.put("queueDepth", platformExecutor.getQueue().size());
+                statistics.put("queueCapacity", queueCapacity);
+                statistics.put("completedTaskCount", platformExecutor.getCompletedTaskCount());
+            } else {
+                statistics.put("activeCount", maxConcurrent - permits.availablePermits());
+                statistics.put("maxConcurrent", maxConcurrent);
+                statistics.put("completedTaskCount", completed.get());
+            }
+            statistics.put("rejectedCount", rejected.get());
+            statistics.put("timedOutCount", timedOut.get());
+            return statistics;
+        }
+    }
+}
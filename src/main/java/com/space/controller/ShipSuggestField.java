@@ -0,0 +1,6 @@
+package com.space.controller;
+
+public enum ShipSuggestField {
+    NAME, // default
+    PLANET
+}
@@ -0,0 +1,66 @@
+package com.space.controller;
+
+import com.space.config.ConnectionPoolMetrics;
+import com.space.service.ShipHedgedReader;
+import com.space.service.ShipParallelProcessor;
+import com.space.service.ShipQueryCache;
+import com.space.service.ShipSecondLevelCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/rest/stats")
+public class StatsController {
+
+    @Autowired
+    private ShipQueryCache queryCache;
+
+    @Autowired
+    private ShipParallelProcessor parallelProcessor;
+
+    @Autowired
+    private ShipSecondLevelCache secondLevelCache;
+
+    @Autowired
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    @Autowired
+    private ShipHedgedReader hedgedReader;
+
+    @Autowired
+    private ShipRequestExecutors requestExecutors;
+
+    @GetMapping("/cache")
+    public Map<String, Object> getCacheStatistics() {
+        return queryCache.getStatistics();
+    }
+
+    @GetMapping("/parallel")
+    public Map<String, Object> getParallelStatistics() {
+        return parallelProcessor.getStatistics();
+    }
+
+    @GetMapping("/l2cache")
+    public Map<String, Object> getSecondLevelCacheStatistics() {
+        return secondLevelCache.getStatistics();
+    }
+
+    @GetMapping("/pool")
+    public Map<String, Object> getPoolStatistics() {
+        return connectionPoolMetrics.getStatistics();
+    }
+
+    @GetMapping("/hedge")
+    public Map<String, Object> getHedgeStatistics() {
+        return hedgedReader.getStatistics();
+    }
+
+    @GetMapping("/executors")
+    public Map<String, Object> getExecutorStatistics() {
+        return requestExecutors.getStatistics();
+    }
+}
@@ -0,0 +1,20 @@
+package com.space.model;
+
+public class ShipImportResult {
+
+    private final long imported;
+    private final long rejected;
+
+    public ShipImportResult(long imported, long rejected) {
+        this.imported = imported;
+        this.rejected = rejected;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+}
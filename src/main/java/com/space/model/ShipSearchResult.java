@@ -0,0 +1,22 @@
+package com.space.model;
+
+import java.util.List;
+
+public class ShipSearchResult {
+
+    private final List<Ship> ships;
+    private final long count;
+
+    public ShipSearchResult(List<Ship> ships, long count) {
+        this.ships = ships;
+        this.count = count;
+    }
+
+    public List<Ship> getShips() {
+        return ships;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
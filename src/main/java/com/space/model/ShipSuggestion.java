@@ -0,0 +1,20 @@
+package com.space.model;
+
+public class ShipSuggestion {
+
+    private final String value;
+    private final int count;
+
+    public ShipSuggestion(String value, int count) {
+        this.value = value;
+        this.count = count;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
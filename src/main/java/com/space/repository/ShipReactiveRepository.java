@@ -0,0 +1,201 @@
+package com.space.repository;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+// The ship table over R2DBC for the reactive API. Every method is a cold publisher that takes a
+// connection when subscribed and gives it back once the rows are consumed, so rows are only read
+// as fast as the subscriber asks for them. The filters mean the same as ShipSpecifications.
+public class ShipReactiveRepository {
+
+    private static final String COLUMNS = "id, name, planet, shipType, prodDate, isUsed, speed, crewSize, rating";
+
+    // '\' would need escaping itself in MySQL string literals
+    private static final char LIKE_ESCAPE = '!';
+
+    private final ConnectionFactory connectionFactory;
+
+    public ShipReactiveRepository(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    public Flux<Ship> findPage(ShipFilter filter, int page, int size, ShipOrder shipOrder) {
+        ShipOrder order = shipOrder == null ? ShipOrder.ID : shipOrder;
+        List<Object> values = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM ship" + where(filter, values)
+                + " ORDER BY " + order.getFieldName()
+                + (order.getFieldName().equals(ShipOrder.ID.getFieldName()) ? "" : ", id")
+                + " LIMIT ? OFFSET ?";
+        values.add(size);
+        values.add((long) page * size);
+
+        return query(sql, values, ShipReactiveRepository::toShip);
+    }
+
+    public Mono<Long> count(ShipFilter filter) {
+        List<Object> values = new ArrayList<>();
+        return query("SELECT COUNT(*) FROM ship" + where(filter, values), values,
+                row -> ((Number) row.get(0)).longValue()).single();
+    }
+
+    public Mono<Ship> findById(Long id) {
+        List<Object> values = new ArrayList<>();
+        values.add(id);
+        return query("SELECT " + COLUMNS + " FROM ship WHERE id = ?", values, ShipReactiveRepository::toShip).next();
+    }
+
+    // the ship comes back with its generated id
+    public Mono<Ship> insert(Ship ship) {
+        return withConnection(connection -> {
+            Statement statement = connection.createStatement(
+                    "INSERT INTO ship (name, planet, shipType, prodDate, isUsed, speed, crewSize, rating)"
+                            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+            bindColumns(statement, ship);
+            return Flux.from(statement.returnGeneratedValues("id").execute())
+                    .flatMap(result -> result.map((row, metadata) -> ((Number) row.get(0)).longValue()));
+        }).single().map(id -> {
+            ship.setId(id);
+            return ship;
+        });
+    }
+
+    // every column of the ship with the ship's id; the number of rows written
+    public Mono<Integer> update(Ship ship) {
+        return withConnection(connection -> {
+            Statement statement = connection.createStatement(
+                    "UPDATE ship SET name = ?, planet = ?, shipType = ?, prodDate = ?, isUsed = ?,"
+                            + " speed = ?, crewSize = ?, rating = ? WHERE id = ?");
+            bindColumns(statement, ship);
+            statement.bind(8, ship.getId());
+            return Flux.from(statement.execute()).flatMap(result -> result.getRowsUpdated());
+        }).reduce(0, Integer::sum);
+    }
+
+    public Mono<Integer> deleteById(Long id) {
+        return withConnection(connection -> Flux.from(connection.createStatement("DELETE FROM ship WHERE id = ?")
+                .bind(0, id)
+                .execute()).flatMap(result -> result.getRowsUpdated())).reduce(0, Integer::sum);
+    }
+
+    private <T> Flux<T> query(String sql, List<Object> values, Function<Row, T> mapper) {
+        return withConnection(connection -> {
+            Statement statement = connection.createStatement(sql);
+            for (int i = 0; i < values.size(); i++)
+                statement.bind(i, values.get(i));
+            return Flux.from(statement.execute()).flatMap(result -> result.map((row, metadata) -> mapper.apply(row)));
+        });
+    }
+
+    private <T> Flux<T> withConnection(Function<Connection, Publisher<T>> work) {
+        return Flux.usingWhen(connectionFactory.create(), work, Connection::close);
+    }
+
+    private static String where(ShipFilter filter, List<Object> values) {
+        List<String> conditions = new ArrayList<>();
+
+        if (filter.getName() != null) {
+            conditions.add("name LIKE ? ESCAPE '" + LIKE_ESCAPE + "'");
+            values.add(containsPattern(filter.getName()));
+        }
+        if (filter.getPlanet() != null) {
+            conditions.add("planet LIKE ? ESCAPE '" + LIKE_ESCAPE + "'");
+            values.add(containsPattern(filter.getPlanet()));
+        }
+        if (filter.getShipType() != null) {
+            conditions.add("shipType = ?");
+            values.add(filter.getShipType().name());
+        }
+        // prodDate is a DATE column: "after" is strict, "before" excludes the bound itself
+        if (filter.getAfter() != null) {
+            conditions.add("prodDate > ?");
+            values.add(toLocalDate(new Date(filter.getAfter())));
+        }
+        if (filter.getBefore() != null) {
+            conditions.add("prodDate <= ?");
+            values.add(toLocalDate(new Date(filter.getBefore() - 1)));
+        }
+        if (filter.getUsed() != null) {
+            conditions.add("isUsed = ?");
+            values.add(filter.getUsed());
+        }
+        addRange(conditions, values, "speed", filter.getMinSpeed(), filter.getMaxSpeed());
+        addRange(conditions, values, "crewSize", filter.getMinCrewSize(), filter.getMaxCrewSize());
+        addRange(conditions, values, "rating", filter.getMinRating(), filter.getMaxRating());
+
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static void addRange(List<String> conditions, List<Object> values, String column, Object min, Object max) {
+        if (min != null) {
+            conditions.add(column + " >= ?");
+            values.add(min);
+        }
+        if (max != null) {
+            conditions.add(column + " <= ?");
+            values.add(max);
+        }
+    }
+
+    private static String containsPattern(String value) {
+        String escaped = value
+                .replace("" + LIKE_ESCAPE, "" + LIKE_ESCAPE + LIKE_ESCAPE)
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_");
+        return "%" + escaped + "%";
+    }
+
+    private static void bindColumns(Statement statement, Ship ship) {
+        bind(statement, 0, ship.getName(), String.class);
+        bind(statement, 1, ship.getPlanet(), String.class);
+        bind(statement, 2, ship.getShipType() == null ? null : ship.getShipType().name(), String.class);
+        bind(statement, 3, ship.getProdDate() == null ? null : toLocalDate(ship.getProdDate()), LocalDate.class);
+        bind(statement, 4, ship.getUsed(), Boolean.class);
+        bind(statement, 5, ship.getSpeed(), Double.class);
+        bind(statement, 6, ship.getCrewSize(), Integer.class);
+        bind(statement, 7, ship.getRating(), Double.class);
+    }
+
+    private static void bind(Statement statement, int index, Object value, Class<?> type) {
+        if (value == null)
+            statement.bindNull(index, type);
+        else
+            statement.bind(index, value);
+    }
+
+    private static Ship toShip(Row row) {
+        String shipType = row.get("shipType", String.class);
+        LocalDate prodDate = row.get("prodDate", LocalDate.class);
+
+        Ship ship = new Ship(
+                row.get("name", String.class),
+                row.get("planet", String.class),
+                shipType == null ? null : ShipType.valueOf(shipType),
+                prodDate == null ? null : java.sql.Date.valueOf(prodDate),
+                row.get("isUsed", Boolean.class),
+                row.get("speed", Double.class),
+                row.get("crewSize", Integer.class),
+                row.get("rating", Double.class));
+        ship.setId(((Number) row.get("id")).longValue());
+        return ship;
+    }
+
+    // in the JVM's time zone, as JDBC converts java.util.Date for a DATE column
+    private static LocalDate toLocalDate(Date date) {
+        return new java.sql.Date(date.getTime()).toLocalDate();
+    }
+}
@@ -1,9 +1,10 @@
 package com.space.repository;
 
 import com.space.model.Ship;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ShipRepository extends CrudRepository<Ship, Long> {
+public interface ShipRepository extends CrudRepository<Ship, Long>, JpaSpecificationExecutor<Ship>, ShipRepositoryCustom {
 }
@@ -0,0 +1,39 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface ShipRepositoryCustom {
+
+    // Reads only the rows of the requested page, without the extra count query of findAll(spec, pageable)
+    List<Ship> findPage(Specification<Ship> spec, Pageable pageable);
+
+    // The page of findPage and the number of matching rows, counted only when the page cannot tell it;
+    // both queries are answered from the query cache when it holds them
+    Page<Ship> findPageWithTotal(Specification<Ship> spec, Pageable pageable);
+
+    // Hands the rows of the requested page to consumer one by one from a forward-only cursor reading
+    // fetchSize rows per round trip; each ship is detached once consumed. Needs a surrounding transaction
+    void streamPage(Specification<Ship> spec, Pageable pageable, int fetchSize, Consumer<Ship> consumer);
+
+    // Same as streamPage over every matching row
+    void stream(Specification<Ship> spec, Sort sort, int fetchSize, Consumer<Ship> consumer);
+
+    // Plain JDBC batch insert, batchSize rows per statement batch; ids are left to the database
+    // and the persistence context is bypassed, so no ShipChangedEvent can follow individual rows
+    void insertAll(List<Ship> ships, int batchSize);
+
+    // One UPDATE over the ships matching filter, setting the non-null fields of changes;
+    // when speed, isUsed or prodDate change the rating is recomputed by the same statement
+    int updateAll(ShipFilter filter, Ship changes);
+
+    // One DELETE over the ships matching filter
+    int deleteAll(ShipFilter filter);
+}
@@ -0,0 +1,217 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.sql.Date;
+import java.sql.Types;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+public class ShipRepositoryCustomImpl implements ShipRepositoryCustom {
+
+    // ShipServiceImpl.calcRating: 80 * speed * (isUsed ? 0.5 : 1) / (CURRENT_YEAR - year(prodDate) + 1)
+    private static final int CURRENT_YEAR = 3019;
+
+    private static final String INSERT_SQL = "INSERT INTO ship (name, planet, shipType, prodDate, isUsed, speed, crewSize, rating) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Ship> findPage(Specification<Ship> spec, Pageable pageable) {
+        if (pageable.getOffset() > Integer.MAX_VALUE)
+            return Collections.emptyList();
+
+        // ids of the page from the query cache, the ships themselves from the entity cache
+        return createPageQuery(spec, pageable)
+                .setHint(QueryHints.CACHEABLE, true)
+                .getResultList();
+    }
+
+    @Override
+    public Page<Ship> findPageWithTotal(Specification<Ship> spec, Pageable pageable) {
+        return PageableExecutionUtils.getPage(findPage(spec, pageable), pageable, () -> count(spec));
+    }
+
+    private long count(Specification<Ship> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null)
+            query.where(predicate);
+        query.select(cb.count(root));
+
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.CACHEABLE, true)
+                .getSingleResult();
+    }
+
+    @Override
+    public void streamPage(Specification<Ship> spec, Pageable pageable, int fetchSize, Consumer<Ship> consumer) {
+        if (pageable.getOffset() > Integer.MAX_VALUE)
+            return;
+
+        scroll(createPageQuery(spec, pageable), fetchSize, consumer);
+    }
+
+    @Override
+    public void stream(Specification<Ship> spec, Sort sort, int fetchSize, Consumer<Ship> consumer) {
+        scroll(createQuery(spec, sort), fetchSize, consumer);
+    }
+
+    @Override
+    public void insertAll(List<Ship> ships, int batchSize) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, ships, batchSize, (statement, ship) -> {
+            statement.setString(1, ship.getName());
+            statement.setString(2, ship.getPlanet());
+            statement.setString(3, ship.getShipType() == null ? null : ship.getShipType().name());
+            statement.setDate(4, ship.getProdDate() == null ? null : new Date(ship.getProdDate().getTime()));
+            statement.setObject(5, ship.getUsed(), Types.BOOLEAN);
+            statement.setObject(6, ship.getSpeed(), Types.DOUBLE);
+            statement.setObject(7, ship.getCrewSize(), Types.INTEGER);
+            statement.setObject(8, ship.getRating(), Types.DOUBLE);
+        });
+    }
+
+    @Override
+    public int updateAll(ShipFilter filter, Ship changes) {
+        return update(changes, (root, cb) -> ShipSpecifications.toPredicates(filter, root, cb));
+    }
+
+    // id and rating are never written; changes without any other field have nothing to SET
+    private int update(Ship changes, BiFunction<Root<Ship>, CriteriaBuilder, Predicate[]> where) {
+        if (changes.getName() == null && changes.getPlanet() == null && changes.getShipType() == null
+                && changes.getProdDate() == null && changes.getUsed() == null && changes.getSpeed() == null
+                && changes.getCrewSize() == null)
+            throw new IllegalArgumentException("No field to update");
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Ship> update = cb.createCriteriaUpdate(Ship.class);
+        Root<Ship> root = update.from(Ship.class);
+
+        if (changes.getName() != null)
+            update.set(root.<String>get("name"), changes.getName());
+        if (changes.getPlanet() != null)
+            update.set(root.<String>get("planet"), changes.getPlanet());
+        if (changes.getShipType() != null)
+            update.set(root.get("shipType"), changes.getShipType());
+        if (changes.getProdDate() != null)
+            update.set(root.<java.util.Date>get("prodDate"), changes.getProdDate());
+        if (changes.getUsed() != null)
+            update.set(root.<Boolean>get("isUsed"), changes.getUsed());
+        if (changes.getSpeed() != null)
+            update.set(root.<Double>get("speed"), changes.getSpeed());
+        if (changes.getCrewSize() != null)
+            update.set(root.<Integer>get("crewSize"), changes.getCrewSize());
+        if (changes.getSpeed() != null || changes.getUsed() != null || changes.getProdDate() != null)
+            update.set(root.<Double>get("rating"), rating(changes, root, cb));
+
+        update.where(where.apply(root, cb));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int deleteAll(ShipFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Ship> delete = cb.createCriteriaDelete(Ship.class);
+        Root<Ship> root = delete.from(Ship.class);
+
+        delete.where(ShipSpecifications.toPredicates(filter, root, cb));
+
+        return entityManager.createQuery(delete).executeUpdate();
+    }
+
+    // the rating from the new speed, isUsed and prodDate where given and the stored ones otherwise,
+    // so it does not depend on the order the database applies the SET clauses in;
+    // FLOOR(x * 100 + 0.5) / 100 rounds half up to two decimals like Math.round does
+    @SuppressWarnings("unchecked")
+    private static Expression<Double> rating(Ship changes, Root<Ship> root, CriteriaBuilder cb) {
+        Expression<Double> speed = changes.getSpeed() != null
+                ? cb.literal(changes.getSpeed())
+                : root.get("speed");
+        Expression<Double> coefficient = changes.getUsed() != null
+                ? cb.literal(changes.getUsed() ? 0.5 : 1.0)
+                : cb.<Double>selectCase().when(cb.isTrue(root.get("isUsed")), 0.5).otherwise(1.0);
+        Expression<Integer> age;
+        if (changes.getProdDate() != null) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTime(changes.getProdDate());
+            age = cb.literal(CURRENT_YEAR - calendar.get(Calendar.YEAR) + 1);
+        } else {
+            age = cb.diff(CURRENT_YEAR + 1, cb.function("YEAR", Integer.class, root.get("prodDate")));
+        }
+
+        Expression<Number> raw = cb.quot(cb.prod(cb.prod(speed, 80.0), coefficient), age);
+        Expression<Double> cents = cb.function("FLOOR", Double.class, cb.sum(cb.prod(raw, 100.0), 0.5));
+        return (Expression<Double>) (Expression<?>) cb.quot(cents, 100.0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scroll(TypedQuery<Ship> typedQuery, int fetchSize, Consumer<Ship> consumer) {
+        Query<Ship> query = typedQuery.unwrap(Query.class);
+        query.setFetchSize(fetchSize);
+        query.setReadOnly(true);
+
+        try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                Ship ship = (Ship) results.get(0);
+                consumer.accept(ship);
+                entityManager.detach(ship);
+            }
+        }
+    }
+
+    private TypedQuery<Ship> createPageQuery(Specification<Ship> spec, Pageable pageable) {
+        TypedQuery<Ship> typedQuery = createQuery(spec, pageable.getSort());
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize());
+
+        return typedQuery;
+    }
+
+    private TypedQuery<Ship> createQuery(Specification<Ship> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Ship> query = cb.createQuery(Ship.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null)
+            query.where(predicate);
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query);
+    }
+}
@@ -0,0 +1,92 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public final class ShipSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ShipSpecifications() {
+    }
+
+    public static Specification<Ship> byFilter(ShipFilter filter) {
+        return (root, query, cb) -> cb.and(toPredicates(filter, root, cb));
+    }
+
+    // keyset seek: rows strictly after (key, id) in "ORDER BY field, id"
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Ship> seekAfter(String fieldName, Comparable key, long id) {
+        return (root, query, cb) -> {
+            Predicate afterId = cb.greaterThan(root.<Long>get("id"), id);
+            if ("id".equals(fieldName))
+                return afterId;
+
+            Path<Comparable> field = root.get(fieldName);
+            return cb.or(
+                    cb.greaterThan(field, key),
+                    cb.and(cb.equal(field, key), afterId));
+        };
+    }
+
+    public static Specification<Ship> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.<Long>get("id").in(ids);
+    }
+
+    public static Predicate[] toPredicates(ShipFilter filter, Root<Ship> root, CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        // filter by name and planet
+        if (filter.getName() != null)
+            predicates.add(cb.like(root.<String>get("name"), containsPattern(filter.getName()), LIKE_ESCAPE));
+        if (filter.getPlanet() != null)
+            predicates.add(cb.like(root.<String>get("planet"), containsPattern(filter.getPlanet()), LIKE_ESCAPE));
+        // filter by shipType
+        if (filter.getShipType() != null)
+            predicates.add(cb.equal(root.get("shipType"), filter.getShipType()));
+        // filter by production date, prodDate is a DATE column so the bounds are
+        // compared as days: "after" is strict, "before" excludes the bound itself
+        if (filter.getAfter() != null)
+            predicates.add(cb.greaterThan(root.<Date>get("prodDate"), new Date(filter.getAfter())));
+        if (filter.getBefore() != null)
+            predicates.add(cb.lessThanOrEqualTo(root.<Date>get("prodDate"), new Date(filter.getBefore() - 1)));
+        // filter by is used
+        if (filter.getUsed() != null)
+            predicates.add(cb.equal(root.get("isUsed"), filter.getUsed()));
+        // filter by speed
+        if (filter.getMinSpeed() != null)
+            predicates.add(cb.greaterThanOrEqualTo(root.<Double>get("speed"), filter.getMinSpeed()));
+        if (filter.getMaxSpeed() != null)
+            predicates.add(cb.lessThanOrEqualTo(root.<Double>get("speed"), filter.getMaxSpeed()));
+        // filter by crew size
+        if (filter.getMinCrewSize() != null)
+            predicates.add(cb.greaterThanOrEqualTo(root.<Integer>get("crewSize"), filter.getMinCrewSize()));
+        if (filter.getMaxCrewSize() != null)
+            predicates.add(cb.lessThanOrEqualTo(root.<Integer>get("crewSize"), filter.getMaxCrewSize()));
+        // filter by rating
+        if (filter.getMinRating() != null)
+            predicates.add(cb.greaterThanOrEqualTo(root.<Double>get("rating"), filter.getMinRating()));
+        if (filter.getMaxRating() != null)
+            predicates.add(cb.lessThanOrEqualTo(root.<Double>get("rating"), filter.getMaxRating()));
+
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    private static String containsPattern(String value) {
+        String escaped = value
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
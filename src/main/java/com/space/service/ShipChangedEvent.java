@@ -0,0 +1,48 @@
+package com.space.service;
+
+import com.space.model.Ship;
+
+// Published by ShipServiceImpl after a write, so in-memory read models can follow the table
+public class ShipChangedEvent {
+
+    public enum Kind {
+        SAVED,
+        DELETED,
+        // the table was rewritten outside the service, any ship may have changed
+        ALL
+    }
+
+    private final Kind kind;
+    private final Ship ship;
+    private final Long shipId;
+
+    private ShipChangedEvent(Kind kind, Ship ship, Long shipId) {
+        this.kind = kind;
+        this.ship = ship;
+        this.shipId = shipId;
+    }
+
+    public static ShipChangedEvent saved(Ship ship) {
+        return new ShipChangedEvent(Kind.SAVED, ship, ship.getId());
+    }
+
+    public static ShipChangedEvent deleted(Long shipId) {
+        return new ShipChangedEvent(Kind.DELETED, null, shipId);
+    }
+
+    public static ShipChangedEvent all() {
+        return new ShipChangedEvent(Kind.ALL, null, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Ship getShip() {
+        return ship;
+    }
+
+    public Long getShipId() {
+        return shipId;
+    }
+}
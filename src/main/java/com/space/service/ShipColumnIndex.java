@@ -0,0 +1,403 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.repository.ShipRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Optional read model holding the fleet as parallel primitive columns.
+// Enabled with ships.index.enabled, loaded on first use and kept in sync through ShipChangedEvent.
+// Full scans and sorts of large fleets are split across ShipParallelProcessor's pool.
+@Component
+public class ShipColumnIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // top-K selection is used when the requested window is at most 1/8 of the fleet
+    private static final int TOP_K_SIZE_RATIO = 8;
+
+    // flags layout: bits 0-1 ShipType ordinal (NO_TYPE for null), bit 2 isUsed
+    private static final int TYPE_MASK = 0b011;
+    private static final int USED_BIT = 0b100;
+    private static final int NO_TYPE = TYPE_MASK;
+
+    @Autowired
+    private ShipRepository shipRepository;
+
+    @Autowired
+    private ShipParallelProcessor parallelProcessor;
+
+    @Value("${ships.index.enabled:false}")
+    private boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private boolean loaded;
+    private int size;
+    private long[] ids = new long[0];
+    private double[] speeds = new double[0];
+    private double[] ratings = new double[0];
+    private int[] crewSizes = new int[0];
+    private int[] prodDays = new int[0];
+    private byte[] flags = new byte[0];
+    private String[] names = new String[0];
+    private String[] planets = new String[0];
+    private final Map<Long, Integer> rowsById = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Result query(ShipFilter filter, ShipOrder order, int pageNumber, int pageSize) {
+        lockForRead();
+        try {
+            Scan scan = new Scan(filter);
+            RowComparator comparator = comparator(order);
+            long window = ((long) pageNumber + 1) * pageSize;
+
+            if (window * TOP_K_SIZE_RATIO <= size)
+                return selectTopK(scan, comparator, (int) window, pageNumber, pageSize);
+
+            int[] matches = parallelProcessor.filter(size, scan::matches);
+            parallelProcessor.sort(matches, matches.length, comparator);
+
+            return page(matches, matches.length, matches.length, pageNumber, pageSize);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // filters, keeps the best `window` rows in a bounded max-heap and pages them in one pass:
+    // O(n log k) time and O(k) memory instead of sorting every match
+    private Result selectTopK(Scan scan, RowComparator comparator, int window, int pageNumber, int pageSize) {
+        int[] heap = new int[window];
+        int heapSize = 0;
+        int count = 0;
+
+        for (int row = 0; row < size; row++) {
+            if (!scan.matches(row))
+                continue;
+            count++;
+            if (heapSize < window) {
+                heap[heapSize] = row;
+                siftUp(heap, heapSize++, comparator);
+            } else if (comparator.compare(row, heap[0]) < 0) {
+                heap[0] = row;
+                siftDown(heap, heapSize, comparator);
+            }
+        }
+
+        parallelProcessor.sort(heap, heapSize, comparator);
+
+        return page(heap, heapSize, count, pageNumber, pageSize);
+    }
+
+    private Result page(int[] sortedRows, int rowCount, int total, int pageNumber, int pageSize) {
+        long from = (long) pageNumber * pageSize;
+        int to = (int) Math.min(from + pageSize, rowCount);
+        long[] pageIds = new long[from < to ? to - (int) from : 0];
+        for (int i = 0; i < pageIds.length; i++)
+            pageIds[i] = ids[sortedRows[(int) from + i]];
+
+        return new Result(pageIds, total);
+    }
+
+    public int count(ShipFilter filter) {
+        lockForRead();
+        try {
+            return parallelProcessor.count(size, new Scan(filter)::matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onShipChanged(ShipChangedEvent event) {
+        if (!enabled)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            if (!loaded)
+                return;
+            switch (event.getKind()) {
+                case SAVED:
+                    put(event.getShip());
+                    break;
+                case DELETED:
+                    remove(event.getShipId());
+                    break;
+                case ALL:
+                default:
+                    // reloaded from the table on the next read
+                    clear();
+                    loaded = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void load(Iterable<Ship> ships) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Ship ship : ships)
+                put(ship);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // takes the read lock, loading the columns from the repository first if needed
+    private void lockForRead() {
+        lock.readLock().lock();
+        if (loaded)
+            return;
+
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                clear();
+                for (Ship ship : shipRepository.findAll())
+                    put(ship);
+                loaded = true;
+            }
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        size = 0;
+        rowsById.clear();
+        ids = new long[INITIAL_CAPACITY];
+        speeds = new double[INITIAL_CAPACITY];
+        ratings = new double[INITIAL_CAPACITY];
+        crewSizes = new int[INITIAL_CAPACITY];
+        prodDays = new int[INITIAL_CAPACITY];
+        flags = new byte[INITIAL_CAPACITY];
+        names = new String[INITIAL_CAPACITY];
+        planets = new String[INITIAL_CAPACITY];
+    }
+
+    private void put(Ship ship) {
+        Integer existing = rowsById.get(ship.getId());
+        int row;
+        if (existing != null) {
+            row = existing;
+        } else {
+            if (size == ids.length)
+                grow();
+            row = size++;
+            rowsById.put(ship.getId(), row);
+        }
+
+        ids[row] = ship.getId();
+        speeds[row] = ship.getSpeed() == null ? Double.NaN : ship.getSpeed();
+        ratings[row] = ship.getRating() == null ? Double.NaN : ship.getRating();
+        crewSizes[row] = ship.getCrewSize() == null ? Integer.MIN_VALUE : ship.getCrewSize();
+        prodDays[row] = ship.getProdDate() == null ? Integer.MIN_VALUE : toEpochDay(ship.getProdDate().getTime());
+        flags[row] = (byte) ((ship.getShipType() == null ? NO_TYPE : ship.getShipType().ordinal())
+                | (Boolean.TRUE.equals(ship.getUsed()) ? USED_BIT : 0));
+        names[row] = ship.getName();
+        planets[row] = ship.getPlanet();
+    }
+
+    // moves the last row into the freed slot to keep the columns dense
+    private void remove(Long id) {
+        Integer removed = rowsById.remove(id);
+        if (removed == null)
+            return;
+
+        int row = removed;
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            speeds[row] = speeds[last];
+            ratings[row] = ratings[last];
+            crewSizes[row] = crewSizes[last];
+            prodDays[row] = prodDays[last];
+            flags[row] = flags[last];
+            names[row] = names[last];
+            planets[row] = planets[last];
+            rowsById.put(ids[row], row);
+        }
+        names[last] = null;
+        planets[last] = null;
+    }
+
+    private void grow() {
+        int capacity = Math.max(ids.length * 2, INITIAL_CAPACITY);
+        ids = Arrays.copyOf(ids, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+        crewSizes = Arrays.copyOf(crewSizes, capacity);
+        prodDays = Arrays.copyOf(prodDays, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        names = Arrays.copyOf(names, capacity);
+        planets = Arrays.copyOf(planets, capacity);
+    }
+
+    private static int toEpochDay(long millis) {
+        return (int) Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    private RowComparator comparator(ShipOrder shipOrder) {
+        ShipOrder order = shipOrder == null ? ShipOrder.ID : shipOrder;
+        switch (order) {
+            case SPEED:
+                return (a, b) -> {
+                    int result = Double.compare(speeds[a], speeds[b]);
+                    return result != 0 ? result : Long.compare(ids[a], ids[b]);
+                };
+            case DATE:
+                return (a, b) -> {
+                    int result = Integer.compare(prodDays[a], prodDays[b]);
+                    return result != 0 ? result : Long.compare(ids[a], ids[b]);
+                };
+            case RATING:
+                return (a, b) -> {
+                    int result = Double.compare(ratings[a], ratings[b]);
+                    return result != 0 ? result : Long.compare(ids[a], ids[b]);
+                };
+            case ID:
+            default:
+                return (a, b) -> Long.compare(ids[a], ids[b]);
+        }
+    }
+
+    // the heap keeps its worst row on top, so a better row replaces it
+    private static void siftUp(int[] heap, int index, RowComparator comparator) {
+        int row = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (comparator.compare(row, heap[parent]) <= 0)
+                break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = row;
+    }
+
+    private static void siftDown(int[] heap, int heapSize, RowComparator comparator) {
+        int row = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize)
+                break;
+            if (child + 1 < heapSize && comparator.compare(heap[child + 1], heap[child]) > 0)
+                child++;
+            if (comparator.compare(row, heap[child]) >= 0)
+                break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = row;
+    }
+
+    interface RowComparator {
+        int compare(int rowA, int rowB);
+    }
+
+    // the filter unboxed into column bounds; absent ranges are skipped by their has* flag
+    private final class Scan {
+        private final String name;
+        private final String planet;
+        private final int flagsMask;
+        private final int flagsValue;
+        private final boolean hasDays;
+        private final int afterDay;
+        private final int beforeDay;
+        private final boolean hasSpeed;
+        private final double minSpeed;
+        private final double maxSpeed;
+        private final boolean hasCrewSize;
+        private final int minCrewSize;
+        private final int maxCrewSize;
+        private final boolean hasRating;
+        private final double minRating;
+        private final double maxRating;
+
+        private Scan(ShipFilter filter) {
+            name = filter.getName();
+            planet = filter.getPlanet();
+
+            ShipType shipType = filter.getShipType();
+            Boolean isUsed = filter.getUsed();
+            flagsMask = (shipType == null ? 0 : TYPE_MASK) | (isUsed == null ? 0 : USED_BIT);
+            flagsValue = (shipType == null ? 0 : shipType.ordinal()) | (Boolean.TRUE.equals(isUsed) ? USED_BIT : 0);
+
+            // a DATE is after the instant when its day is later than the instant's day,
+            // and before it when its day is not later than the day of (instant - 1ms)
+            hasDays = filter.getAfter() != null || filter.getBefore() != null;
+            afterDay = filter.getAfter() == null ? Integer.MIN_VALUE : toEpochDay(filter.getAfter());
+            beforeDay = filter.getBefore() == null ? Integer.MAX_VALUE : toEpochDay(filter.getBefore() - 1);
+
+            hasSpeed = filter.getMinSpeed() != null || filter.getMaxSpeed() != null;
+            minSpeed = filter.getMinSpeed() == null ? Double.NEGATIVE_INFINITY : filter.getMinSpeed();
+            maxSpeed = filter.getMaxSpeed() == null ? Double.POSITIVE_INFINITY : filter.getMaxSpeed();
+
+            hasCrewSize = filter.getMinCrewSize() != null || filter.getMaxCrewSize() != null;
+            minCrewSize = filter.getMinCrewSize() == null ? Integer.MIN_VALUE + 1 : filter.getMinCrewSize();
+            maxCrewSize = filter.getMaxCrewSize() == null ? Integer.MAX_VALUE : filter.getMaxCrewSize();
+
+            hasRating = filter.getMinRating() != null || filter.getMaxRating() != null;
+            minRating = filter.getMinRating() == null ? Double.NEGATIVE_INFINITY : filter.getMinRating();
+            maxRating = filter.getMaxRating() == null ? Double.POSITIVE_INFINITY : filter.getMaxRating();
+        }
+
+        private boolean matches(int row) {
+            if ((flags[row] & flagsMask) != flagsValue)
+                return false;
+            if (hasDays && (prodDays[row] <= afterDay || prodDays[row] > beforeDay))
+                return false;
+            if (hasSpeed && !(speeds[row] >= minSpeed && speeds[row] <= maxSpeed))
+                return false;
+            if (hasCrewSize && !(crewSizes[row] >= minCrewSize && crewSizes[row] <= maxCrewSize))
+                return false;
+            if (hasRating && !(ratings[row] >= minRating && ratings[row] <= maxRating))
+                return false;
+            if (name != null && (names[row] == null || !names[row].contains(name)))
+                return false;
+            return planet == null || (planets[row] != null && planets[row].contains(planet));
+        }
+    }
+
+    public static final class Result {
+        private final long[] ids;
+        private final int total;
+
+        private Result(long[] ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        // ids of the requested page, in order
+        public long[] getIds() {
+            return ids;
+        }
+
+        // number of ships matching the filter
+        public int getTotal() {
+            return total;
+        }
+    }
+}
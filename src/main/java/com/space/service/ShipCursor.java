@@ -0,0 +1,80 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+// Opaque keyset-pagination token: the order and the (orderKey, id) of the last ship of a page
+public final class ShipCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final ShipOrder order;
+    private final Object key;
+    private final long id;
+
+    private ShipCursor(ShipOrder order, Object key, long id) {
+        this.order = order;
+        this.key = key;
+        this.id = id;
+    }
+
+    public static ShipCursor after(Ship ship, ShipOrder shipOrder) {
+        ShipOrder order = shipOrder == null ? ShipOrder.ID : shipOrder;
+        switch (order) {
+            case SPEED:
+                return new ShipCursor(order, ship.getSpeed(), ship.getId());
+            case DATE:
+                return new ShipCursor(order, new Date(ship.getProdDate().getTime()), ship.getId());
+            case RATING:
+                return new ShipCursor(order, ship.getRating(), ship.getId());
+            case ID:
+            default:
+                return new ShipCursor(order, ship.getId(), ship.getId());
+        }
+    }
+
+    public static ShipCursor decode(String token) throws IllegalArgumentException {
+        String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR);
+        if (parts.length != 3)
+            throw new IllegalArgumentException("Malformed cursor");
+
+        try {
+            ShipOrder order = ShipOrder.valueOf(parts[0]);
+            long id = Long.parseLong(parts[2]);
+            switch (order) {
+                case SPEED:
+                case RATING:
+                    return new ShipCursor(order, Double.valueOf(parts[1]), id);
+                case DATE:
+                    return new ShipCursor(order, new Date(Long.parseLong(parts[1])), id);
+                case ID:
+                default:
+                    return new ShipCursor(order, id, id);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    public String encode() {
+        String value = key instanceof Date ? String.valueOf(((Date) key).getTime()) : String.valueOf(key);
+        String raw = order.name() + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ShipOrder getOrder() {
+        return order;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,246 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.repository.ShipRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// BK-tree over the distinct lower-cased ship names, for typo-tolerant name search.
+// Loaded on first use and kept in sync through ShipChangedEvent. A BK-tree can't drop a node,
+// so a name no ship carries any more stays in it as a dead term; once dead terms make up
+// MAX_DEAD_FRACTION of the tree, it is rebuilt from the live ones.
+@Component
+public class ShipFuzzyIndex {
+
+    @Autowired
+    private ShipRepository shipRepository;
+
+    static final double MAX_DEAD_FRACTION = 0.5;
+    // small trees are not worth rebuilding
+    static final int MIN_REBUILD_TERMS = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private boolean loaded;
+    private Node root;
+    // nodes in the tree, live or dead
+    private int terms;
+    // live terms only: a term leaves the map with its last ship
+    private final Map<String, Set<Long>> idsByName = new HashMap<>();
+    private final Map<Long, String> indexed = new HashMap<>();
+
+    // edits tolerated for a query: none for very short names, then one, then two
+    public static int maxDistance(String name) {
+        if (name.length() <= 2)
+            return 0;
+        return name.length() <= 5 ? 1 : 2;
+    }
+
+    // ids of the ships named within maxDistance edits of name, with their distance
+    public Map<Long, Integer> search(String name, int maxDistance) {
+        String query = key(name);
+        Map<Long, Integer> distances = new HashMap<>();
+
+        lockForRead();
+        try {
+            if (root == null)
+                return distances;
+
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                int distance = distance(query, node.term);
+
+                Set<Long> ids = idsByName.get(node.term);
+                if (distance <= maxDistance && ids != null)
+                    for (Long id : ids)
+                        distances.put(id, distance);
+
+                // triangle inequality: only children at distance +-maxDistance can hold matches
+                for (int d = Math.max(0, distance - maxDistance); d <= distance + maxDistance; d++) {
+                    Node child = node.children.get(d);
+                    if (child != null)
+                        stack.push(child);
+                }
+            }
+            return distances;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onShipChanged(ShipChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded)
+                return;
+            switch (event.getKind()) {
+                case SAVED:
+                    remove(event.getShipId());
+                    put(event.getShip());
+                    break;
+                case DELETED:
+                    remove(event.getShipId());
+                    break;
+                case ALL:
+                default:
+                    // reloaded from the table on the next read
+                    clear();
+                    loaded = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void load(Iterable<Ship> ships) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Ship ship : ships)
+                put(ship);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // takes the read lock, building the tree from the repository first if needed
+    private void lockForRead() {
+        lock.readLock().lock();
+        if (loaded)
+            return;
+
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                clear();
+                for (Ship ship : shipRepository.findAll())
+                    put(ship);
+                loaded = true;
+            }
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // tree nodes whose name no ship carries any more
+    int deadTerms() {
+        lock.readLock().lock();
+        try {
+            return terms - idsByName.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void clear() {
+        root = null;
+        terms = 0;
+        idsByName.clear();
+        indexed.clear();
+    }
+
+    private void put(Ship ship) {
+        if (ship.getName() == null)
+            return;
+
+        String term = key(ship.getName());
+        insert(term);
+        idsByName.computeIfAbsent(term, key -> new HashSet<>()).add(ship.getId());
+        indexed.put(ship.getId(), term);
+    }
+
+    private void remove(Long id) {
+        String term = indexed.remove(id);
+        if (term == null)
+            return;
+
+        Set<Long> ids = idsByName.get(term);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            idsByName.remove(term);
+            if (terms >= MIN_REBUILD_TERMS && terms - idsByName.size() > terms * MAX_DEAD_FRACTION)
+                rebuild();
+        }
+    }
+
+    // a fresh tree over the live terms only
+    private void rebuild() {
+        root = null;
+        terms = 0;
+        for (String term : idsByName.keySet())
+            insert(term);
+    }
+
+    private void insert(String term) {
+        if (root == null) {
+            root = new Node(term);
+            terms++;
+            return;
+        }
+
+        Node node = root;
+        while (true) {
+            int distance = distance(term, node.term);
+            if (distance == 0)
+                return;
+
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(term));
+                terms++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    // Levenshtein distance over two rolling rows
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++)
+            previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Node {
+        private final String term;
+        private final Map<Integer, Node> children = new HashMap<>(4);
+
+        private Node(String term) {
+            this.term = term;
+        }
+    }
+}
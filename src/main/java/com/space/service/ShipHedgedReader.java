@@ -0,0 +1,233 @@
+package com.space.service;
+
+import com.space.config.ReadWriteRoutingDataSource;
+import com.space.config.ReplicaLagGuard;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Hedged replica reads. A read is sent to one replica; if it has not answered after the
+// ships.hedge.percentile of recent read latencies, the same read goes to the next replica too.
+// The first answer wins and the other attempt is cancelled. Interrupting a thread does not stop
+// a statement running in the driver, so every attempt also runs with a query timeout of
+// TIMEOUT_DELAYS hedge delays, at least ships.hedge.minTimeoutSeconds: the losing attempt gives
+// its connection and pool thread back soon after. Until WARM_UP latencies are known
+// nothing is hedged. Reads that must see the client's own writes, fewer than two replicas,
+// or a full hedge queue mean a plain read on the calling thread.
+@Component
+public class ShipHedgedReader implements InitializingBean, DisposableBean {
+
+    private static final int WINDOW = 1024;
+    private static final int WARM_UP = 64;
+    private static final int TIMEOUT_DELAYS = 20;
+
+    @Value("${ships.hedge.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ships.hedge.percentile:95}")
+    private double percentile;
+
+    @Value("${ships.hedge.minDelayMillis:2}")
+    private long minDelayMillis;
+
+    @Value("${ships.hedge.threads:16}")
+    private int threads;
+
+    // JDBC query timeouts are whole seconds
+    @Value("${ships.hedge.minTimeoutSeconds:1}")
+    private int minTimeoutSeconds;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicaLagGuard lagGuard;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate readOnly;
+
+    // the latest WINDOW attempt latencies, the hedge delay is recomputed from them every WARM_UP samples
+    private final AtomicLongArray latencies = new AtomicLongArray(WINDOW);
+    private final AtomicLong samples = new AtomicLong();
+    private volatile long delayNanos = Long.MAX_VALUE;
+
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong hedgedReads = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    @Override
+    public void afterPropertiesSet() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(threads), runnable -> {
+            Thread thread = new Thread(runnable, "ship-hedge-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <T> T read(Supplier<T> read) {
+        int replicas = routingDataSource.getReplicaCount();
+        if (!enabled || replicas < 2 || lagGuard.mustReadPrimary())
+            return read.get();
+
+        int first = routingDataSource.nextReplica();
+        int second = (first + 1) % replicas;
+
+        CompletionService<T> attempts = new ExecutorCompletionService<>(executor);
+        Future<T> firstAttempt;
+        try {
+            firstAttempt = attempts.submit(() -> attempt(first, read));
+        } catch (RejectedExecutionException e) {
+            return read.get();
+        }
+        reads.incrementAndGet();
+
+        Future<T> secondAttempt = null;
+        try {
+            Future<T> done = attempts.poll(delayNanos, TimeUnit.NANOSECONDS);
+            if (done == null) {
+                secondAttempt = hedge(attempts, second, read);
+                done = attempts.take();
+            }
+
+            try {
+                return result(done, secondAttempt);
+            } catch (ExecutionException e) {
+                if (secondAttempt == null)
+                    throw propagate(e);
+                // one attempt failed, the other may still answer
+                try {
+                    return result(attempts.take(), secondAttempt);
+                } catch (ExecutionException again) {
+                    throw propagate(again);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading from the replicas", e);
+        } finally {
+            firstAttempt.cancel(true);
+            if (secondAttempt != null)
+                secondAttempt.cancel(true);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        long total = reads.get();
+        long hedged = hedgedReads.get();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("reads", total);
+        statistics.put("hedgedReads", hedged);
+        statistics.put("hedgeRate", total == 0 ? 0.0 : (double) hedged / total);
+        statistics.put("hedgeWins", hedgeWins.get());
+        statistics.put("hedgeWinRate", hedged == 0 ? 0.0 : (double) hedgeWins.get() / hedged);
+        statistics.put("delayMillis", delayNanos == Long.MAX_VALUE ? null : (double) delayNanos / TimeUnit.MILLISECONDS.toNanos(1));
+        statistics.put("timeoutSeconds", timeoutSeconds());
+        return statistics;
+    }
+
+    // package-private for tests
+    void recordLatency(long nanos) {
+        long sample = samples.getAndIncrement();
+        latencies.set((int) (sample % WINDOW), nanos);
+        if ((sample + 1) % WARM_UP == 0)
+            updateDelay(Math.min(sample + 1, WINDOW));
+    }
+
+    private void updateDelay(long count) {
+        long[] sorted = new long[(int) count];
+        for (int i = 0; i < sorted.length; i++)
+            sorted[i] = latencies.get(i);
+        Arrays.sort(sorted);
+
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        long percentileNanos = sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        delayNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(minDelayMillis), percentileNanos);
+    }
+
+    private <T> Future<T> hedge(CompletionService<T> attempts, int replica, Supplier<T> read) {
+        try {
+            Future<T> attempt = attempts.submit(() -> attempt(replica, read));
+            hedgedReads.incrementAndGet();
+            return attempt;
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private <T> T result(Future<T> done, Future<T> secondAttempt) throws ExecutionException, InterruptedException {
+        T result = done.get();
+        if (done == secondAttempt)
+            hedgeWins.incrementAndGet();
+        return result;
+    }
+
+    private <T> T attempt(int replica, Supplier<T> read) {
+        // an attempt cancelled before it started never runs, so an interrupt seen here is left over
+        // from the cancelled attempt this pool thread ran before
+        Thread.interrupted();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager, readOnly);
+        transaction.setTimeout(timeoutSeconds());
+
+        long start = System.nanoTime();
+        T result = routingDataSource.onReplica(replica, () -> transaction.execute(status -> read.get()));
+        recordLatency(System.nanoTime() - start);
+        return result;
+    }
+
+    // no timeout before the hedge delay is known, as nothing is hedged then
+    private int timeoutSeconds() {
+        long delay = delayNanos;
+        if (delay == Long.MAX_VALUE)
+            return TransactionTemplate.TIMEOUT_DEFAULT;
+        long seconds = (delay * TIMEOUT_DELAYS + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        return (int) Math.max(minTimeoutSeconds, seconds);
+    }
+
+    private static RuntimeException propagate(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException)
+            return (RuntimeException) cause;
+        if (cause instanceof Error)
+            throw (Error) cause;
+        return new IllegalStateException(cause);
+    }
+}
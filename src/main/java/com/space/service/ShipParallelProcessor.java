@@ -0,0 +1,222 @@
+package com.space.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+
+// Scans and sorts the rows of ShipColumnIndex on a dedicated ForkJoinPool.
+// Row ranges below ships.parallel.threshold stay on the calling thread; larger ones are split into
+// about four chunks per worker, so the chunk size grows with the fleet instead of being fixed.
+// The caller holds the index's read lock for the whole call, so the workers see stable columns.
+@Component
+public class ShipParallelProcessor implements InitializingBean, DisposableBean {
+
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    @Value("${ships.parallel.threshold:20000}")
+    private int threshold;
+
+    // 0 means one worker per available processor
+    @Value("${ships.parallel.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    @Override
+    public void afterPropertiesSet() {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(workers);
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdown();
+    }
+
+    // the rows in [0, size) that match, in ascending order
+    public int[] filter(int size, IntPredicate matcher) {
+        if (!isParallel(size))
+            return collect(0, size, matcher);
+        return pool.invoke(new FilterTask(0, size, chunkSize(size), matcher));
+    }
+
+    public int count(int size, IntPredicate matcher) {
+        if (!isParallel(size))
+            return count(0, size, matcher);
+        return pool.invoke(new CountTask(0, size, chunkSize(size), matcher));
+    }
+
+    // sorts rows[0, count) in place; stable, like Collections.sort
+    public void sort(int[] rows, int count, ShipColumnIndex.RowComparator comparator) {
+        int[] buffer = new int[count];
+        if (!isParallel(count))
+            mergeSort(rows, buffer, 0, count, comparator);
+        else
+            pool.invoke(new SortTask(rows, buffer, 0, count, chunkSize(count), comparator));
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("threshold", threshold);
+        statistics.put("parallelism", pool.getParallelism());
+        statistics.put("poolSize", pool.getPoolSize());
+        statistics.put("activeThreadCount", pool.getActiveThreadCount());
+        statistics.put("stealCount", pool.getStealCount());
+        return statistics;
+    }
+
+    private boolean isParallel(int size) {
+        return size >= threshold && pool.getParallelism() > 1;
+    }
+
+    private int chunkSize(int size) {
+        return Math.max(MIN_CHUNK_SIZE, size / (pool.getParallelism() * CHUNKS_PER_WORKER));
+    }
+
+    private static int[] collect(int from, int to, IntPredicate matcher) {
+        int[] matched = new int[Math.min(to - from, 16)];
+        int count = 0;
+        for (int row = from; row < to; row++) {
+            if (matcher.test(row)) {
+                if (count == matched.length)
+                    matched = Arrays.copyOf(matched, count * 2);
+                matched[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matched, count);
+    }
+
+    private static int count(int from, int to, IntPredicate matcher) {
+        int count = 0;
+        for (int row = from; row < to; row++) {
+            if (matcher.test(row))
+                count++;
+        }
+        return count;
+    }
+
+    // bottom-up merge sort of rows[from, to), merging through the same range of buffer
+    private static void mergeSort(int[] rows, int[] buffer, int from, int to, ShipColumnIndex.RowComparator comparator) {
+        for (int width = 1; width < to - from; width *= 2) {
+            for (int low = from; low < to - width; low += 2 * width) {
+                int middle = low + width;
+                merge(rows, buffer, low, middle, Math.min(low + 2 * width, to), comparator);
+            }
+        }
+    }
+
+    private static void merge(int[] rows, int[] buffer, int from, int middle, int to, ShipColumnIndex.RowComparator comparator) {
+        // already ordered halves need no merge
+        if (comparator.compare(rows[middle - 1], rows[middle]) <= 0)
+            return;
+
+        System.arraycopy(rows, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            // ties take the left row first to keep the sort stable
+            if (right >= to || (left < middle && comparator.compare(buffer[left], buffer[right]) <= 0))
+                rows[i] = buffer[left++];
+            else
+                rows[i] = buffer[right++];
+        }
+    }
+
+    private static final class FilterTask extends RecursiveTask<int[]> {
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final IntPredicate matcher;
+
+        private FilterTask(int from, int to, int chunkSize, IntPredicate matcher) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.matcher = matcher;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= chunkSize)
+                return collect(from, to, matcher);
+
+            int middle = (from + to) >>> 1;
+            FilterTask left = new FilterTask(from, middle, chunkSize, matcher);
+            left.fork();
+            int[] right = new FilterTask(middle, to, chunkSize, matcher).compute();
+            int[] matched = left.join();
+
+            int[] merged = Arrays.copyOf(matched, matched.length + right.length);
+            System.arraycopy(right, 0, merged, matched.length, right.length);
+            return merged;
+        }
+    }
+
+    private static final class CountTask extends RecursiveTask<Integer> {
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final IntPredicate matcher;
+
+        private CountTask(int from, int to, int chunkSize, IntPredicate matcher) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.matcher = matcher;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= chunkSize)
+                return count(from, to, matcher);
+
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(from, middle, chunkSize, matcher);
+            left.fork();
+            int right = new CountTask(middle, to, chunkSize, matcher).compute();
+            return left.join() + right;
+        }
+    }
+
+    // sorts rows[from, to) in place, using the same range of buffer for merging
+    private static final class SortTask extends RecursiveAction {
+        private final int[] rows;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final ShipColumnIndex.RowComparator comparator;
+
+        private SortTask(int[] rows, int[] buffer, int from, int to, int chunkSize, ShipColumnIndex.RowComparator comparator) {
+            this.rows = rows;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                mergeSort(rows, buffer, from, to, comparator);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new SortTask(rows, buffer, from, middle, chunkSize, comparator),
+                    new SortTask(rows, buffer, middle, to, chunkSize, comparator));
+            merge(rows, buffer, from, middle, to, comparator);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.space.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.space.controller.ShipOrder;
+import com.space.model.ShipFilter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Bounded cache of listing, search and count results keyed by the normalized request parameters.
+// Every ShipChangedEvent bumps the version that is part of each key, so a result computed
+// concurrently with a write is stored under a stale key and never served.
+@Component
+public class ShipQueryCache implements InitializingBean {
+
+    @Value("${ships.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ships.cache.maximumSize:1000}")
+    private long maximumSize;
+
+    @Value("${ships.cache.expireAfterWriteSeconds:60}")
+    private long expireAfterWriteSeconds;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private Cache<Key, Object> cache;
+
+    @Override
+    public void afterPropertiesSet() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader) {
+        if (!enabled)
+            return loader.get();
+
+        return (T) cache.get(key.withVersion(version.get()), k -> loader.get());
+    }
+
+    @EventListener
+    public void onShipChanged(ShipChangedEvent event) {
+        version.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> getStatistics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("size", cache.estimatedSize());
+        statistics.put("version", version.get());
+        statistics.put("hitCount", stats.hitCount());
+        statistics.put("missCount", stats.missCount());
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("evictionCount", stats.evictionCount());
+        statistics.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+        return statistics;
+    }
+
+    public static final class Key {
+
+        private enum Type {
+            LIST,
+            SEARCH,
+            FUZZY,
+            COUNT
+        }
+
+        private final Type type;
+        private final ShipFilter filter;
+        private final int pageNumber;
+        private final int pageSize;
+        private final ShipOrder order;
+        private final long version;
+
+        private Key(Type type, ShipFilter filter, int pageNumber, int pageSize, ShipOrder order, long version) {
+            this.type = type;
+            this.filter = filter;
+            this.pageNumber = pageNumber;
+            this.pageSize = pageSize;
+            this.order = order == null ? ShipOrder.ID : order;
+            this.version = version;
+        }
+
+        public static Key list(ShipFilter filter, int pageNumber, int pageSize, ShipOrder order) {
+            return new Key(Type.LIST, filter, pageNumber, pageSize, order, 0);
+        }
+
+        public static Key search(ShipFilter filter, int pageNumber, int pageSize, ShipOrder order) {
+            return new Key(Type.SEARCH, filter, pageNumber, pageSize, order, 0);
+        }
+
+        public static Key fuzzy(ShipFilter filter, int pageNumber, int pageSize, ShipOrder order) {
+            return new Key(Type.FUZZY, filter, pageNumber, pageSize, order, 0);
+        }
+
+        public static Key count(ShipFilter filter) {
+            return new Key(Type.COUNT, filter, 0, 0, ShipOrder.ID, 0);
+        }
+
+        private Key withVersion(long version) {
+            return new Key(type, filter, pageNumber, pageSize, order, version);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return pageNumber == key.pageNumber &&
+                    pageSize == key.pageSize &&
+                    version == key.version &&
+                    type == key.type &&
+                    order == key.order &&
+                    Objects.equals(filter, key.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, filter, pageNumber, pageSize, order, version);
+        }
+    }
+}
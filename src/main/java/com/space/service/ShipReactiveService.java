@@ -0,0 +1,114 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.repository.ShipReactiveRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// The reactive API's reads and writes, over R2DBC instead of JPA. Validation and rating are
+// ShipService's. Its writes go around Hibernate, so they evict the ship from the second-level
+// cache and publish full SAVED / DELETED events, which the read models apply without a query.
+@Service
+public class ShipReactiveService {
+
+    @Autowired
+    private ShipReactiveRepository shipRepository;
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private ShipSecondLevelCache secondLevelCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public Flux<Ship> getShips(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order) {
+        int page = pageNumber == null ? 0 : pageNumber;
+        int size = pageSize == null ? 3 : pageSize;
+
+        if (page < 0 || size < 1)
+            return Flux.empty();
+
+        return shipRepository.findPage(filter, page, size, order);
+    }
+
+    public Mono<Long> countShips(ShipFilter filter) {
+        return shipRepository.count(filter);
+    }
+
+    public Mono<Ship> getShip(Long id) {
+        return shipRepository.findById(id);
+    }
+
+    // expects a ship already checked with isShipValid and rated
+    public Mono<Ship> createShip(Ship ship) {
+        ship.setId(null);
+        return shipRepository.insert(ship).doOnNext(created -> afterWrite(ShipChangedEvent.saved(created)));
+    }
+
+    // the given fields over the stored ship, as ShipService.updateShip; empty when there is no
+    // such ship, IllegalArgumentException when the result is not a valid ship
+    public Mono<Ship> updateShip(Long id, Ship changes) {
+        return shipRepository.findById(id).flatMap(ship -> {
+            if (shipService.isShipEmpty(changes))
+                return Mono.just(ship);
+
+            boolean shouldChangeRating = merge(ship, changes);
+            if (!shipService.isShipValid(ship))
+                return Mono.error(new IllegalArgumentException());
+            if (shouldChangeRating)
+                ship.setRating(shipService.calcRating(ship.getSpeed(), ship.getUsed(), ship.getProdDate()));
+
+            return shipRepository.update(ship)
+                    .filter(updated -> updated > 0)
+                    .map(updated -> ship)
+                    .doOnNext(updated -> afterWrite(ShipChangedEvent.saved(updated)));
+        });
+    }
+
+    public Mono<Boolean> deleteShip(Long id) {
+        return shipRepository.deleteById(id)
+                .map(deleted -> deleted > 0)
+                .doOnNext(deleted -> {
+                    if (deleted)
+                        afterWrite(ShipChangedEvent.deleted(id));
+                });
+    }
+
+    private boolean merge(Ship ship, Ship changes) {
+        if (changes.getName() != null)
+            ship.setName(changes.getName());
+        if (changes.getPlanet() != null)
+            ship.setPlanet(changes.getPlanet());
+        if (changes.getShipType() != null)
+            ship.setShipType(changes.getShipType());
+        if (changes.getCrewSize() != null)
+            ship.setCrewSize(changes.getCrewSize());
+
+        boolean shouldChangeRating = false;
+        if (changes.getProdDate() != null) {
+            ship.setProdDate(changes.getProdDate());
+            shouldChangeRating = true;
+        }
+        if (changes.getUsed() != null) {
+            ship.setUsed(changes.getUsed());
+            shouldChangeRating = true;
+        }
+        if (changes.getSpeed() != null) {
+            ship.setSpeed(changes.getSpeed());
+            shouldChangeRating = true;
+        }
+        return shouldChangeRating;
+    }
+
+    private void afterWrite(ShipChangedEvent event) {
+        secondLevelCache.evictShip(event.getShipId());
+        eventPublisher.publishEvent(event);
+    }
+}
@@ -0,0 +1,60 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Hibernate keeps its second-level cache right for everything it writes itself: single-ship
+// writes are entity operations, which put back or evict only that ship, while the set-based
+// JPQL updates and deletes evict the whole Ship region; both mark the query results stale.
+// Only writes around Hibernate (JDBC bulk imports, scripts) announce themselves with an ALL
+// event and have to drop the cached ships and queries here.
+@Component
+public class ShipSecondLevelCache {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @EventListener
+    public void onShipChanged(ShipChangedEvent event) {
+        if (event.getKind() != ShipChangedEvent.Kind.ALL)
+            return;
+
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        cache.evictEntityData(Ship.class);
+        cache.evictQueryRegions();
+    }
+
+    // for single-ship writes around Hibernate (the reactive API): the ship and every cached
+    // query, whose results the update timestamps cannot tell are stale
+    public void evictShip(Long shipId) {
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        cache.evictEntityData(Ship.class, shipId);
+        cache.evictQueryRegions();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Statistics stats = sessionFactory().getStatistics();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("hitCount", stats.getSecondLevelCacheHitCount());
+        statistics.put("missCount", stats.getSecondLevelCacheMissCount());
+        statistics.put("putCount", stats.getSecondLevelCachePutCount());
+        statistics.put("queryHitCount", stats.getQueryCacheHitCount());
+        statistics.put("queryMissCount", stats.getQueryCacheMissCount());
+        statistics.put("queryPutCount", stats.getQueryCachePutCount());
+        statistics.put("timestampsHitCount", stats.getUpdateTimestampsCacheHitCount());
+        statistics.put("timestampsPutCount", stats.getUpdateTimestampsCachePutCount());
+        return statistics;
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -1,11 +1,18 @@
 package com.space.service;
 
 import com.space.controller.ShipOrder;
+import com.space.controller.ShipSuggestField;
 import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipImportResult;
+import com.space.model.ShipSearchResult;
+import com.space.model.ShipSuggestion;
 import com.space.model.ShipType;
 
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.Optional;
 
 public interface ShipService {
@@ -30,10 +37,21 @@ public interface ShipService {
             ShipOrder order
     );
 
-    public List<Ship> getAllShips();
+    public ShipSearchResult searchShips(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order);
 
-    public List<Ship> filterShips(
-            List<Ship> shipsList,
+    public ShipSearchResult searchShipsFuzzy(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order);
+
+    public void streamShips(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order, Consumer<Ship> consumer);
+
+    public void exportShips(ShipFilter filter, ShipOrder order, Consumer<Ship> consumer);
+
+    public ShipImportResult importShips(Iterator<Ship> ships);
+
+    public List<Ship> getShipsAfter(ShipFilter filter, ShipCursor cursor, Integer pageSize, ShipOrder order);
+
+    public List<ShipSuggestion> suggest(ShipSuggestField field, String prefix, Integer limit);
+
+    public long countShips(
             String name,
             String planet,
             ShipType shipType,
@@ -48,19 +66,21 @@ public interface ShipService {
             Double maxRating
     );
 
-    public List<Ship> sortShips(List<Ship> shipsList, ShipOrder order);
-
-    public List<Ship> paginateShips(List<Ship> shipsList, Integer pageNumber, Integer pageSize);
-
     public Ship createShip(Ship ship);
 
     public boolean isShipValid(Ship ship);
 
     public Double calcRating(Double speed, Boolean isUsed, Date prodDate);
 
-    public void deleteShip(Long id);
+    public boolean deleteShip(Long id);
+
+    public boolean patchShip(Long id, Ship changes);
+
+    public long updateShips(ShipFilter filter, Ship changes);
+
+    public long deleteShips(ShipFilter filter);
 
-    public Ship updateShip(Ship currentShip, Ship updatedShip);
+    public Ship updateShip(Long id, Ship updatedShip);
 
     boolean isShipEmpty(Ship ship);
 }
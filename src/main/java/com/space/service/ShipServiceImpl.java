@@ -1,13 +1,31 @@
 package com.space.service;
 
 import com.space.controller.ShipOrder;
+import com.space.controller.ShipSuggestField;
 import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipImportResult;
+import com.space.model.ShipSearchResult;
+import com.space.model.ShipSuggestion;
 import com.space.model.ShipType;
 import com.space.repository.ShipRepository;
+import com.space.repository.ShipSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 public class ShipServiceImpl implements ShipService {
@@ -15,14 +33,52 @@ public class ShipServiceImpl implements ShipService {
     @Autowired
     private ShipRepository shipRepository;
 
+    @Autowired
+    private ShipColumnIndex shipIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ShipQueryCache queryCache;
+
+    @Autowired
+    private ShipTrigramIndex trigramIndex;
+
+    @Autowired
+    private ShipSuggestIndex suggestIndex;
+
+    @Autowired
+    private ShipFuzzyIndex fuzzyIndex;
+
+    @Autowired
+    private ShipHedgedReader hedgedReader;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${ships.stream.fetchSize:500}")
+    private int streamFetchSize;
+
+    @Value("${ships.bulk.batchSize:500}")
+    private int bulkBatchSize;
+
+    @Value("${ships.bulk.chunkSize:10000}")
+    private int bulkChunkSize;
+
+    @Value("${ships.write.transactionTimeoutSeconds:10}")
+    private int writeTimeoutSeconds;
+
     public ShipServiceImpl() {}
 
     @Override
+    @Transactional(readOnly = true)
     public Ship getShip(Long id) {
-        return shipRepository.findById(id).orElse(null);
+        return hedgedReader.read(() -> shipRepository.findById(id)).orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Ship> getShips(
             String name,
             String planet,
@@ -40,9 +96,8 @@ public class ShipServiceImpl implements ShipService {
             Integer pageSize,
             ShipOrder order
     ) {
-        List<Ship> allShips = getAllShips();
-
-        List<Ship> filteredShips = filterShips(allShips, name,
+        ShipFilter filter = new ShipFilter(
+                name,
                 planet,
                 shipType,
                 after,
@@ -55,21 +110,28 @@ public class ShipServiceImpl implements ShipService {
                 minRating,
                 maxRating);
 
-        List<Ship> sortedShips = sortShips(filteredShips, order);
+        int page = pageNumber == null ? 0 : pageNumber;
+        int size = pageSize == null ? 3 : pageSize;
 
-        List<Ship> pagedShips = paginateShips(sortedShips, pageNumber, pageSize);
+        if (page < 0 || size < 1)
+            return Collections.emptyList();
 
-        return pagedShips;
+        return queryCache.get(ShipQueryCache.Key.list(filter, page, size, order),
+                () -> findShips(filter, page, size, order));
     }
 
-    @Override
-    public List<Ship> getAllShips() {
-        return (List<Ship>) shipRepository.findAll();
+    private List<Ship> findShips(ShipFilter filter, int page, int size, ShipOrder order) {
+        if (shipIndex.isEnabled())
+            return findAllInOrder(shipIndex.query(filter, order, page, size).getIds());
+
+        Pageable pageable = PageRequest.of(page, size, toSort(order));
+
+        return hedgedReader.read(() -> shipRepository.findPage(toSpecification(filter), pageable));
     }
 
     @Override
-    public List<Ship> filterShips(
-            List<Ship> shipsList,
+    @Transactional(readOnly = true)
+    public long countShips(
             String name,
             String planet,
             ShipType shipType,
@@ -83,104 +145,255 @@ public class ShipServiceImpl implements ShipService {
             Double minRating,
             Double maxRating
     ) {
-        List<Ship> filteredShips = new ArrayList<>(shipsList);
-
-        for (Ship ship: shipsList) {
-            // filter by name
-            if (name != null)
-                if (!ship.getName().contains(name))
-                    filteredShips.remove(ship);
-            // filter by planet
-            if (planet != null)
-                if (!ship.getPlanet().contains(planet))
-                    filteredShips.remove(ship);
-            // filter by shipType
-            if (shipType != null)
-                if (!ship.getShipType().equals(shipType))
-                    filteredShips.remove(ship);
-            // filter by production date
-            if (after != null)
-                if (!ship.getProdDate().after(new Date(after)))
-                    filteredShips.remove(ship);
-            if (before != null)
-                if (!ship.getProdDate().before(new Date(before)))
-                    filteredShips.remove(ship);
-            // filter by is used
-            if (isUsed != null)
-                if (!ship.getUsed() == isUsed)
-                    filteredShips.remove(ship);
-            // filter by speed
-            if (minSpeed != null)
-                if (ship.getSpeed() < minSpeed)
-                    filteredShips.remove(ship);
-            if (maxSpeed != null)
-                if (ship.getSpeed() > maxSpeed)
-                    filteredShips.remove(ship);
-            // filter by crew size
-            if (minCrewSize != null)
-                if (ship.getCrewSize() < minCrewSize)
-                    filteredShips.remove(ship);
-            if (maxCrewSize != null)
-                if (ship.getCrewSize() > maxCrewSize)
-                    filteredShips.remove(ship);
-            // filter by rating
-            if (minRating != null)
-                if (ship.getRating() < minRating)
-                    filteredShips.remove(ship);
-            if (maxRating != null)
-                if (ship.getRating() > maxRating)
-                    filteredShips.remove(ship);
+        ShipFilter filter = new ShipFilter(
+                name,
+                planet,
+                shipType,
+                after,
+                before,
+                isUsed,
+                minSpeed,
+                maxSpeed,
+                minCrewSize,
+                maxCrewSize,
+                minRating,
+                maxRating);
+
+        return countShips(filter);
+    }
+
+    private long countShips(ShipFilter filter) {
+        return queryCache.get(ShipQueryCache.Key.count(filter), () -> countFilteredShips(filter));
+    }
+
+    private long countFilteredShips(ShipFilter filter) {
+        if (filter.isEmpty())
+            return shipRepository.count();
+
+        if (shipIndex.isEnabled())
+            return shipIndex.count(filter);
+
+        return shipRepository.count(toSpecification(filter));
+    }
+
+    // the filter as SQL, narrowed to the trigram index candidates when it can tell them
+    private Specification<Ship> toSpecification(ShipFilter filter) {
+        Specification<Ship> spec = ShipSpecifications.byFilter(filter);
+
+        Set<Long> candidates = trigramIndex.candidates(filter);
+        if (candidates != null)
+            spec = spec.and(ShipSpecifications.idIn(candidates));
+
+        return spec;
+    }
+
+    private List<Ship> findAllInOrder(long[] ids) {
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids)
+            idList.add(id);
+
+        Map<Long, Ship> shipsById = new HashMap<>();
+        for (Ship ship : shipRepository.findAllById(idList))
+            shipsById.put(ship.getId(), ship);
+
+        List<Ship> ships = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Ship ship = shipsById.get(id);
+            if (ship != null)
+                ships.add(ship);
+        }
+        return ships;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ShipSearchResult searchShips(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order) {
+        int page = pageNumber == null ? 0 : pageNumber;
+        int size = pageSize == null ? 3 : pageSize;
+
+        if (page < 0 || size < 1)
+            return new ShipSearchResult(Collections.emptyList(), countShips(filter));
+
+        return queryCache.get(ShipQueryCache.Key.search(filter, page, size, order),
+                () -> findShipsWithCount(filter, page, size, order));
+    }
+
+    private ShipSearchResult findShipsWithCount(ShipFilter filter, int page, int size, ShipOrder order) {
+        if (shipIndex.isEnabled()) {
+            ShipColumnIndex.Result result = shipIndex.query(filter, order, page, size);
+            return new ShipSearchResult(findAllInOrder(result.getIds()), result.getTotal());
         }
 
-        return filteredShips;
+        Specification<Ship> spec = toSpecification(filter);
+        Pageable pageable = PageRequest.of(page, size, toSort(order));
+
+        if (filter.isEmpty())
+            return new ShipSearchResult(shipRepository.findPage(spec, pageable), shipRepository.count());
+
+        // Page skips the COUNT query when the total is already known from the rows it read
+        Page<Ship> ships = shipRepository.findPageWithTotal(spec, pageable);
+        return new ShipSearchResult(ships.getContent(), ships.getTotalElements());
     }
 
     @Override
-    public List<Ship> sortShips(List<Ship> shipsList, ShipOrder shipOrder) {
+    @Transactional(readOnly = true)
+    public ShipSearchResult searchShipsFuzzy(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order) {
+        if (filter.getName() == null)
+            return searchShips(filter, pageNumber, pageSize, order);
 
-        ShipOrder order = shipOrder == null ? ShipOrder.ID : shipOrder;
+        int page = pageNumber == null ? 0 : pageNumber;
+        int size = pageSize == null ? 3 : pageSize;
+
+        return queryCache.get(ShipQueryCache.Key.fuzzy(filter, page, size, order),
+                () -> findShipsFuzzy(filter, page, size, order));
+    }
+
+    // the name filter becomes "within a few edits of name"; the fuzzy matches are few,
+    // so they are read whole and ranked and paged here
+    private ShipSearchResult findShipsFuzzy(ShipFilter filter, int page, int size, ShipOrder order) {
+        Map<Long, Integer> distances = fuzzyIndex.search(filter.getName(), ShipFuzzyIndex.maxDistance(filter.getName()));
+        if (distances.isEmpty())
+            return new ShipSearchResult(Collections.emptyList(), 0);
+
+        Specification<Ship> spec = toSpecification(filter.withName(null))
+                .and(ShipSpecifications.idIn(distances.keySet()));
+
+        List<Ship> ships;
+        if (order == null || order == ShipOrder.RELEVANCE) {
+            ships = shipRepository.findAll(spec);
+            ships.sort(Comparator.<Ship>comparingInt(ship -> distances.get(ship.getId()))
+                    .thenComparing(Ship::getId));
+        } else {
+            ships = shipRepository.findAll(spec, toSort(order));
+        }
+
+        long from = (long) page * size;
+        if (page < 0 || size < 1 || from >= ships.size())
+            return new ShipSearchResult(Collections.emptyList(), ships.size());
+
+        return new ShipSearchResult(
+                new ArrayList<>(ships.subList((int) from, (int) Math.min(from + size, ships.size()))), ships.size());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamShips(ShipFilter filter, Integer pageNumber, Integer pageSize, ShipOrder order, Consumer<Ship> consumer) {
+        int page = pageNumber == null ? 0 : pageNumber;
+        int size = pageSize == null ? 3 : pageSize;
+
+        if (page < 0 || size < 1)
+            return;
+
+        Pageable pageable = PageRequest.of(page, size, toSort(order));
+        shipRepository.streamPage(toSpecification(filter), pageable, streamFetchSize, consumer);
+    }
 
-        List<Ship> sortedShips = new ArrayList<>(shipsList);
-
-        Collections.sort(sortedShips, (ship1, ship2) -> {
-            switch (order) {
-                case ID:
-                    return ship1.getId().compareTo(ship2.getId());
-                case DATE:
-                    return ship1.getProdDate().compareTo(ship2.getProdDate());
-                case SPEED:
-                    return ship1.getSpeed().compareTo(ship2.getSpeed());
-                case RATING:
-                    return ship1.getRating().compareTo(ship2.getRating());
-                default:
-                    return 0;
+    @Override
+    @Transactional(readOnly = true)
+    public void exportShips(ShipFilter filter, ShipOrder order, Consumer<Ship> consumer) {
+        shipRepository.stream(toSpecification(filter), toSort(order), streamFetchSize, consumer);
+    }
+
+    // each chunk of valid ships is inserted and committed in its own transaction,
+    // so a failure keeps the chunks before it; invalid ships are counted and skipped
+    @Override
+    public ShipImportResult importShips(Iterator<Ship> ships) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Ship> chunk = new ArrayList<>();
+        long imported = 0;
+        long rejected = 0;
+
+        try {
+            while (ships.hasNext()) {
+                Ship ship = ships.next();
+                if (!prepareForImport(ship)) {
+                    rejected++;
+                    continue;
+                }
+
+                chunk.add(ship);
+                if (chunk.size() >= bulkChunkSize) {
+                    imported += insertChunk(transactionTemplate, chunk);
+                    chunk.clear();
+                }
             }
+            imported += insertChunk(transactionTemplate, chunk);
+        } finally {
+            if (imported > 0)
+                eventPublisher.publishEvent(ShipChangedEvent.all());
+        }
+
+        return new ShipImportResult(imported, rejected);
+    }
+
+    // the same checks and rating as POST /ships
+    private boolean prepareForImport(Ship ship) {
+        if (ship == null)
+            return false;
+
+        ship.setId(null);
+        if (ship.getUsed() == null)
+            ship.setUsed(false);
+
+        if (!isShipValid(ship))
+            return false;
+
+        ship.setRating(calcRating(ship.getSpeed(), ship.getUsed(), ship.getProdDate()));
+        return true;
+    }
+
+    private int insertChunk(TransactionTemplate transactionTemplate, List<Ship> chunk) {
+        if (chunk.isEmpty())
+            return 0;
+
+        transactionTemplate.execute(status -> {
+            shipRepository.insertAll(chunk, bulkBatchSize);
+            return null;
         });
+        return chunk.size();
+    }
 
-        return sortedShips;
+    @Override
+    @Transactional(readOnly = true)
+    public List<Ship> getShipsAfter(ShipFilter filter, ShipCursor cursor, Integer pageSize, ShipOrder shipOrder)
+            throws IllegalArgumentException {
+        ShipOrder order = shipOrder == null ? ShipOrder.ID : shipOrder;
+        int size = pageSize == null ? 3 : pageSize;
+
+        if (size < 1)
+            return Collections.emptyList();
+
+        Specification<Ship> spec = toSpecification(filter);
+        if (cursor != null) {
+            if (cursor.getOrder() != order)
+                throw new IllegalArgumentException();
+            spec = spec.and(ShipSpecifications.seekAfter(order.getFieldName(), (Comparable<?>) cursor.getKey(), cursor.getId()));
+        }
+
+        return shipRepository.findPage(spec, PageRequest.of(0, size, toSort(order)));
     }
 
     @Override
-    public List<Ship> paginateShips(List<Ship> shipsList, Integer pageNumber, Integer pageSize) {
-        Integer page = pageNumber == null ? 0 : pageNumber;
-        Integer size = pageSize == null ? 3 : pageSize;
+    public List<ShipSuggestion> suggest(ShipSuggestField field, String prefix, Integer limit) {
+        int size = limit == null ? 10 : Math.min(limit, ShipSuggestIndex.MAX_SUGGESTIONS);
 
-        if (page == 0 && shipsList.size() <= size)
-            return shipsList;
-        else {
-            Integer from = page * size;
-            Integer to = page * size + size;
+        return suggestIndex.suggest(field == null ? ShipSuggestField.NAME : field, prefix, size);
+    }
+
+    private Sort toSort(ShipOrder shipOrder) {
+        ShipOrder order = shipOrder == null ? ShipOrder.ID : shipOrder;
 
-            if (to > shipsList.size())
-                to = shipsList.size();
+        Sort sort = Sort.by(order.getFieldName());
+        if (!order.getFieldName().equals(ShipOrder.ID.getFieldName()))
+            sort = sort.and(Sort.by(ShipOrder.ID.getFieldName()));
 
-            return shipsList.subList(from, to);
-        }
+        return sort;
     }
 
     @Override
     public Ship createShip(Ship ship) {
-        shipRepository.save(ship);
+        writeTransaction().execute(status -> shipRepository.save(ship));
+        eventPublisher.publishEvent(ShipChangedEvent.saved(ship));
         return ship;
     }
 
@@ -198,72 +411,123 @@ public class ShipServiceImpl implements ShipService {
         return Math.round(((80 * speed * coefficient) / (currentYear -  prodYear + 1))*100)/100D;
     }
 
+    // the ship is found in the write transaction, from the second-level cache when it is there, and
+    // removed with one DELETE that evicts only its own cache entry; false when there was no such ship
     @Override
-    public void deleteShip(Long id) {
-        Ship deletedShip = getShip(id);
-        if (deletedShip != null)
-            shipRepository.delete(deletedShip);
+    public boolean deleteShip(Long id) {
+        try {
+            boolean deleted = writeTransaction().execute(status -> {
+                Optional<Ship> ship = shipRepository.findById(id);
+                ship.ifPresent(shipRepository::delete);
+                return ship.isPresent();
+            });
+            if (!deleted)
+                return false;
+        } catch (OptimisticLockingFailureException e) {
+            // deleted by someone else in between
+            return false;
+        }
+
+        eventPublisher.publishEvent(ShipChangedEvent.deleted(id));
+        return true;
     }
 
+    // the given fields set on the ship found in the write transaction; dirty checking flushes them
+    // as one UPDATE of just those columns (Ship is @DynamicUpdate), and only this ship's cache entry
+    // is replaced. False when there was no such ship.
+    // A body without any writable field is refused: id and rating are never written
     @Override
-    public Ship updateShip(Ship currentShip, Ship updatedShip) throws IllegalArgumentException {
-        boolean shouldChangeRating = false;
-
-        final String name = updatedShip.getName();
-        if (name != null) {
-            if (isNameValid(name)) {
-                currentShip.setName(name);
-            } else {
-                throw new IllegalArgumentException();
-            }
-        }
-        final String planet = updatedShip.getPlanet();
-        if (planet != null) {
-            if (isPlanetValid(planet)) {
-                currentShip.setPlanet(planet);
-            } else {
-                throw new IllegalArgumentException();
-            }
-        }
-        if (updatedShip.getShipType() != null) {
-            currentShip.setShipType(updatedShip.getShipType());
-        }
-        final Date prodDate = updatedShip.getProdDate();
-        if (prodDate != null) {
-            if (isProdDateValid(prodDate)) {
-                currentShip.setProdDate(prodDate);
-                shouldChangeRating = true;
-            } else {
-                throw new IllegalArgumentException();
-            }
-        }
-        if (updatedShip.getUsed() != null) {
-            currentShip.setUsed(updatedShip.getUsed());
-            shouldChangeRating = true;
-        }
-        final Double speed = updatedShip.getSpeed();
-        if (speed != null) {
-            if (isSpeedValid(speed)) {
-                currentShip.setSpeed(speed);
-                shouldChangeRating = true;
-            } else {
-                throw new IllegalArgumentException();
-            }
-        }
-        final Integer crewSize = updatedShip.getCrewSize();
-        if (crewSize != null) {
-            if (isCrewSizeValid(crewSize)) {
-                currentShip.setCrewSize(crewSize);
-            } else {
-                throw new IllegalArgumentException();
-            }
-        }
-        if (shouldChangeRating) {
-            final double rating = calcRating(currentShip.getSpeed(), currentShip.getUsed(), currentShip.getProdDate());
-            currentShip.setRating(rating);
+    public boolean patchShip(Long id, Ship changes) throws IllegalArgumentException {
+        if (!hasWritableField(changes))
+            throw new IllegalArgumentException();
+
+        validateChanges(changes);
+
+        return writeChanges(id, changes) != null;
+    }
+
+    // the ship as updated, or null when there is no such ship. It is read in the write transaction,
+    // from the primary, so columns another client wrote within the replica lag cannot be put back
+    // with a stale copy; only the given fields are written, as patchShip does
+    @Override
+    public Ship updateShip(Long id, Ship updatedShip) throws IllegalArgumentException {
+        return writeChanges(id, updatedShip);
+    }
+
+    private Ship writeChanges(Long id, Ship changes) throws IllegalArgumentException {
+        Ship ship;
+        try {
+            ship = writeTransaction().execute(status -> {
+                Ship found = shipRepository.findById(id).orElse(null);
+                if (found != null) {
+                    validateChanges(changes);
+                    applyChanges(found, changes);
+                }
+                return found;
+            });
+        } catch (OptimisticLockingFailureException e) {
+            // deleted by someone else in between
+            return null;
         }
-        shipRepository.save(currentShip);
-        return currentShip;
+
+        if (ship != null && hasWritableField(changes))
+            eventPublisher.publishEvent(ShipChangedEvent.saved(ship));
+        return ship;
+    }
+
+    // changes already checked with validateChanges
+    private void applyChanges(Ship ship, Ship changes) {
+        if (changes.getName() != null)
+            ship.setName(changes.getName());
+        if (changes.getPlanet() != null)
+            ship.setPlanet(changes.getPlanet());
+        if (changes.getShipType() != null)
+            ship.setShipType(changes.getShipType());
+        if (changes.getProdDate() != null)
+            ship.setProdDate(changes.getProdDate());
+        if (changes.getUsed() != null)
+            ship.setUsed(changes.getUsed());
+        if (changes.getSpeed() != null)
+            ship.setSpeed(changes.getSpeed());
+        if (changes.getCrewSize() != null)
+            ship.setCrewSize(changes.getCrewSize());
+        if (changes.getProdDate() != null || changes.getUsed() != null || changes.getSpeed() != null)
+            ship.setRating(calcRating(ship.getSpeed(), ship.getUsed(), ship.getProdDate()));
+    }
+
+    // Single-ship and filtered writes run on ShipRequestExecutors' write pool, which does not
+    // interrupt them after a 503; the transaction timeout, applied by Hibernate to each statement
+    // as a JDBC query timeout, is what bounds them instead
+    private TransactionTemplate writeTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setTimeout(writeTimeoutSeconds);
+        return transactionTemplate;
+    }
+
+    // the same field checks as updateShip; an empty filter or no changes is refused rather than touching every ship.
+    // The event follows the commit, so read models reloading on it cannot see the old rows
+    @Override
+    public long updateShips(ShipFilter filter, Ship changes) throws IllegalArgumentException {
+        if (filter.isEmpty() || !hasWritableField(changes))
+            throw new IllegalArgumentException();
+
+        validateChanges(changes);
+
+        int updated = writeTransaction().execute(status -> shipRepository.updateAll(filter, changes));
+        if (updated > 0)
+            eventPublisher.publishEvent(ShipChangedEvent.all());
+        return updated;
+    }
+
+    @Override
+    public long deleteShips(ShipFilter filter) throws IllegalArgumentException {
+        if (filter.isEmpty())
+            throw new IllegalArgumentException();
+
+        int deleted = writeTransaction().execute(status -> shipRepository.deleteAll(filter));
+        if (deleted > 0)
+            eventPublisher.publishEvent(ShipChangedEvent.all());
+        return deleted;
     }
 
     @Override
@@ -296,6 +560,26 @@ public class ShipServiceImpl implements ShipService {
             return false;
     }
 
+    // the fields an UPDATE sets; the rating follows from speed, isUsed and prodDate
+    private static boolean hasWritableField(Ship changes) {
+        return changes.getName() != null
+                || changes.getPlanet() != null
+                || changes.getShipType() != null
+                || changes.getProdDate() != null
+                || changes.getUsed() != null
+                || changes.getSpeed() != null
+                || changes.getCrewSize() != null;
+    }
+
+    private void validateChanges(Ship changes) throws IllegalArgumentException {
+        if ((changes.getName() != null && !isNameValid(changes.getName()))
+                || (changes.getPlanet() != null && !isPlanetValid(changes.getPlanet()))
+                || (changes.getProdDate() != null && !isProdDateValid(changes.getProdDate()))
+                || (changes.getSpeed() != null && !isSpeedValid(changes.getSpeed()))
+                || (changes.getCrewSize() != null && !isCrewSizeValid(changes.getCrewSize())))
+            throw new IllegalArgumentException();
+    }
+
     private boolean isNameValid(String name) {
         if (name != null && name.length() > 0 && name.length() <= 50)
             return true;
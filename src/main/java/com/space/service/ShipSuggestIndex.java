@@ -0,0 +1,246 @@
+package com.space.service;
+
+import com.space.controller.ShipSuggestField;
+import com.space.model.Ship;
+import com.space.model.ShipSuggestion;
+import com.space.repository.ShipRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Prefix tries over the distinct ship names and planets, counting how many ships carry each value.
+// Every node keeps the best MAX_SUGGESTIONS completions below it, so a lookup is the walk down the
+// prefix whatever the subtree size, even for an empty prefix. A write re-ranks the nodes on the
+// changed value's path only. Loaded on first use and kept in sync through ShipChangedEvent.
+@Component
+public class ShipSuggestIndex {
+
+    public static final int MAX_SUGGESTIONS = 100;
+
+    // most frequent first, then alphabetically
+    private static final Comparator<Node> RANKING = Comparator.<Node>comparingInt(node -> node.count).reversed()
+            .thenComparing(node -> node.value);
+
+    @Autowired
+    private ShipRepository shipRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private boolean loaded;
+    private Node names = new Node();
+    private Node planets = new Node();
+    // name and planet as they were indexed, to uncount them on update and delete
+    private final Map<Long, String[]> indexed = new HashMap<>();
+
+    public List<ShipSuggestion> suggest(ShipSuggestField field, String prefix, int limit) {
+        if (limit < 1)
+            return Collections.emptyList();
+
+        lockForRead();
+        try {
+            Node node = find(field == ShipSuggestField.PLANET ? planets : names, key(prefix == null ? "" : prefix));
+            if (node == null)
+                return Collections.emptyList();
+            return top(node, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onShipChanged(ShipChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded)
+                return;
+            switch (event.getKind()) {
+                case SAVED:
+                    remove(event.getShipId());
+                    put(event.getShip());
+                    break;
+                case DELETED:
+                    remove(event.getShipId());
+                    break;
+                case ALL:
+                default:
+                    // reloaded from the table on the next read
+                    clear();
+                    loaded = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void load(Iterable<Ship> ships) {
+        lock.writeLock().lock();
+        try {
+            reload(ships);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // takes the read lock, loading the tries from the repository first if needed
+    private void lockForRead() {
+        lock.readLock().lock();
+        if (loaded)
+            return;
+
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (!loaded)
+                reload(shipRepository.findAll());
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static List<ShipSuggestion> top(Node node, int limit) {
+        int size = Math.min(limit, node.top.size());
+        List<ShipSuggestion> suggestions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Node completion = node.top.get(i);
+            suggestions.add(new ShipSuggestion(completion.value, completion.count));
+        }
+        return suggestions;
+    }
+
+    // counts every ship first and ranks the whole tries once, bottom-up
+    private void reload(Iterable<Ship> ships) {
+        clear();
+        for (Ship ship : ships) {
+            count(names, ship.getName(), 1);
+            count(planets, ship.getPlanet(), 1);
+            indexed.put(ship.getId(), new String[]{ship.getName(), ship.getPlanet()});
+        }
+        rankAll(names);
+        rankAll(planets);
+        loaded = true;
+    }
+
+    private void clear() {
+        names = new Node();
+        planets = new Node();
+        indexed.clear();
+    }
+
+    private void put(Ship ship) {
+        add(names, ship.getName());
+        add(planets, ship.getPlanet());
+        indexed.put(ship.getId(), new String[]{ship.getName(), ship.getPlanet()});
+    }
+
+    private void remove(Long id) {
+        String[] values = indexed.remove(id);
+        if (values == null)
+            return;
+        subtract(names, values[0]);
+        subtract(planets, values[1]);
+    }
+
+    private static void add(Node root, String value) {
+        Node[] path = count(root, value, 1);
+        if (path != null)
+            rank(path, path.length - 1);
+    }
+
+    // uncounts value, prunes the branch it leaves empty and re-ranks what is left of the path
+    private static void subtract(Node root, String value) {
+        Node[] path = count(root, value, -1);
+        if (path == null)
+            return;
+
+        String key = key(value);
+        int last = key.length();
+        for (; last > 0 && path[last].count == 0 && path[last].children.isEmpty(); last--)
+            path[last - 1].children.remove(key.charAt(last - 1));
+        rank(path, last);
+    }
+
+    // adds delta to the ships carrying value; the nodes from the root down to value, null when
+    // there is nothing to uncount
+    private static Node[] count(Node root, String value, int delta) {
+        if (value == null)
+            return null;
+        String key = key(value);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node child = path[i].children.get(key.charAt(i));
+            if (child == null) {
+                if (delta < 0)
+                    return null;
+                child = new Node();
+                path[i].children.put(key.charAt(i), child);
+            }
+            path[i + 1] = child;
+        }
+
+        Node node = path[key.length()];
+        if (node.count + delta < 0)
+            return null;
+        node.count += delta;
+        if (node.count == 0)
+            node.value = null;
+        else if (delta > 0)
+            node.value = value;
+        return path;
+    }
+
+    // re-ranks path[0..last], deepest first, as each node merges its children's rankings
+    private static void rank(Node[] path, int last) {
+        for (int i = last; i >= 0; i--)
+            rankNode(path[i]);
+    }
+
+    private static void rankAll(Node node) {
+        for (Node child : node.children.values())
+            rankAll(child);
+        rankNode(node);
+    }
+
+    private static void rankNode(Node node) {
+        List<Node> candidates = new ArrayList<>();
+        if (node.count > 0)
+            candidates.add(node);
+        for (Node child : node.children.values())
+            candidates.addAll(child.top);
+        candidates.sort(RANKING);
+        node.top = candidates.size() > MAX_SUGGESTIONS
+                ? new ArrayList<>(candidates.subList(0, MAX_SUGGESTIONS))
+                : candidates;
+    }
+
+    private static Node find(Node root, String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++)
+            node = node.children.get(key.charAt(i));
+        return node;
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        // the value ending here as last spelled by a ship, and how many ships carry it
+        private String value;
+        private int count;
+        // the best completions in this subtree, this node included, at most MAX_SUGGESTIONS
+        private List<Node> top = Collections.emptyList();
+    }
+}
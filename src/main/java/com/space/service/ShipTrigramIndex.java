@@ -0,0 +1,219 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.repository.ShipRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Optional trigram posting lists over Ship.name and Ship.planet.
+// Enabled with ships.trigram.enabled, loaded on first use and kept in sync through ShipChangedEvent.
+// Text is folded before it is split into trigrams: accents are stripped (NFD without its combining
+// marks) and case is folded char by char. So the candidates are a superset of the matches under a
+// collation that ignores at most case and accents, such as MySQL's utf8_general_ci, or a binary one.
+// Collations with expansions (utf8_unicode_ci: 'ß' = "ss") are not covered; keep the index off there.
+// The filters themselves still verify every candidate.
+@Component
+public class ShipTrigramIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    // past this many candidates an "id IN (...)" list costs more than the scan it saves
+    private static final int MAX_CANDIDATES = 1000;
+
+    @Autowired
+    private ShipRepository shipRepository;
+
+    @Value("${ships.trigram.enabled:false}")
+    private boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private boolean loaded;
+    private final Map<String, Set<Long>> namePostings = new HashMap<>();
+    private final Map<String, Set<Long>> planetPostings = new HashMap<>();
+    // name and planet as they were indexed, to unlink them on update and delete
+    private final Map<Long, String[]> indexed = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ids of the only ships that can match the name and planet filters,
+    // or null when the filters are too short (or too common) to narrow the search
+    public Set<Long> candidates(ShipFilter filter) {
+        if (!enabled || (!isSearchable(filter.getName()) && !isSearchable(filter.getPlanet())))
+            return null;
+
+        lockForRead();
+        try {
+            Set<Long> candidates = narrow(null, namePostings, filter.getName());
+            candidates = narrow(candidates, planetPostings, filter.getPlanet());
+
+            if (candidates != null && candidates.size() > MAX_CANDIDATES)
+                return null;
+            return candidates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onShipChanged(ShipChangedEvent event) {
+        if (!enabled)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            if (!loaded)
+                return;
+            switch (event.getKind()) {
+                case SAVED:
+                    remove(event.getShipId());
+                    put(event.getShip());
+                    break;
+                case DELETED:
+                    remove(event.getShipId());
+                    break;
+                case ALL:
+                default:
+                    // reloaded from the table on the next read
+                    clear();
+                    loaded = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void load(Iterable<Ship> ships) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Ship ship : ships)
+                put(ship);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // takes the read lock, loading the posting lists from the repository first if needed
+    private void lockForRead() {
+        lock.readLock().lock();
+        if (loaded)
+            return;
+
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                clear();
+                for (Ship ship : shipRepository.findAll())
+                    put(ship);
+                loaded = true;
+            }
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Set<Long> narrow(Set<Long> candidates, Map<String, Set<Long>> postings, String value) {
+        if (!isSearchable(value))
+            return candidates;
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : trigrams(value)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting == null)
+                return Collections.emptySet();
+            lists.add(posting);
+        }
+        if (candidates != null)
+            lists.add(candidates);
+
+        // intersect starting from the shortest list
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++)
+            result.retainAll(lists.get(i));
+        return result;
+    }
+
+    private void clear() {
+        namePostings.clear();
+        planetPostings.clear();
+        indexed.clear();
+    }
+
+    private void put(Ship ship) {
+        Long id = ship.getId();
+        link(namePostings, ship.getName(), id);
+        link(planetPostings, ship.getPlanet(), id);
+        indexed.put(id, new String[]{ship.getName(), ship.getPlanet()});
+    }
+
+    private void remove(Long id) {
+        String[] values = indexed.remove(id);
+        if (values == null)
+            return;
+        unlink(namePostings, values[0], id);
+        unlink(planetPostings, values[1], id);
+    }
+
+    private static void link(Map<String, Set<Long>> postings, String value, Long id) {
+        if (value == null)
+            return;
+        for (String gram : trigrams(value))
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+    }
+
+    private static void unlink(Map<String, Set<Long>> postings, String value, Long id) {
+        if (value == null)
+            return;
+        for (String gram : trigrams(value)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting != null && posting.remove(id) && posting.isEmpty())
+                postings.remove(gram);
+        }
+    }
+
+    private static boolean isSearchable(String value) {
+        return value != null && fold(value).length() >= GRAM_LENGTH;
+    }
+
+    private static Set<String> trigrams(String value) {
+        String text = fold(value);
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++)
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        return grams;
+    }
+
+    // 'É' and 'e' fold to the same char, as they compare equal under an accent-insensitive collation
+    static String fold(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK)
+                folded.append(Character.toLowerCase(Character.toUpperCase(c)));
+        }
+        return folded.toString();
+    }
+}
@@ -1,7 +1,8 @@
 function loadContent(root, suffix, currentPage) {
 
-    let objects = JSON.parse(Get(root + "/rest/ships" + suffix).responseText);
-    let shipsCount = Get(root + "/rest/ships/count" + suffix).responseText;
+    let result = JSON.parse(Get(root + "/rest/ships/search" + suffix).responseText);
+    let objects = result.ships;
+    let shipsCount = result.count;
     document.getElementById("count").innerText = "Ships found: " + shipsCount;
     let table = document.getElementById("mainTable");
     table.innerHTML = "";
@@ -72,6 +73,25 @@ function loadContent(root, suffix, currentPage) {
     window.scrollTo(500, 100);
 }
 
+function suggest(root, field, prefix, listId) {
+    let Httpreq = new XMLHttpRequest(); // an asynchronous request, one per keystroke
+    Httpreq.open("GET", root + "/rest/ships/suggest?field=" + field + "&prefix=" + encodeURIComponent(prefix), true);
+    Httpreq.onload = function () {
+        if (Httpreq.status !== 200) {
+            return;
+        }
+        let suggestions = JSON.parse(Httpreq.responseText);
+        let list = document.getElementById(listId);
+        list.innerHTML = "";
+        for (let i = 0; i < suggestions.length; i++) {
+            let option = document.createElement("option");
+            option.setAttribute("value", suggestions[i].value);
+            list.appendChild(option);
+        }
+    };
+    Httpreq.send(null);
+}
+
 function Get(requestUrl) {
     let Httpreq = new XMLHttpRequest(); // a new request
     Httpreq.open("GET", requestUrl, false);
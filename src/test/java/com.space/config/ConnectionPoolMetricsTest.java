@@ -0,0 +1,62 @@
+package com.space.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ConnectionPoolMetricsTest {
+
+    private ConnectionPoolMetrics metrics;
+    private HikariDataSource dataSource;
+
+    @Before
+    public void setup() {
+        metrics = new ConnectionPoolMetrics();
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:pool-metrics");
+        config.setMaximumPoolSize(1);
+        config.setConnectionTimeout(250);
+        config.setMetricsTrackerFactory(metrics);
+        dataSource = new HikariDataSource(config);
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void borrowedConnectionsAreCounted() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            assertEquals(1, metrics.getStatistics().get("activeConnections"));
+        }
+
+        Map<String, Object> statistics = metrics.getStatistics();
+        assertEquals(true, statistics.get("pooled"));
+        assertEquals(1L, statistics.get("acquiredCount"));
+        assertEquals(0L, statistics.get("timeoutCount"));
+    }
+
+    @Test
+    public void exhaustedPoolCountsTimeouts() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Connection second = dataSource.getConnection()) {
+                fail("the only connection is borrowed");
+            } catch (SQLException e) {
+                // waited connectionTimeout for it
+            }
+        }
+
+        assertEquals(1L, metrics.getStatistics().get("timeoutCount"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.space.config;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private ReplicaLagGuard lagGuard;
+    private ReadWriteRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @Before
+    public void setup() {
+        lagGuard = new ReplicaLagGuard(200);
+        routingDataSource = new ReadWriteRoutingDataSource(node("primary"),
+                Arrays.asList(node("replica-a"), node("replica-b")), lagGuard);
+        routingDataSource.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        lagGuard.clearCurrentClient();
+        routingDataSource.close();
+    }
+
+    @Test
+    public void readOnlyTransactionsGoRoundRobinToReplicas() {
+        Set<String> nodes = new HashSet<>();
+        for (int i = 0; i < 4; i++)
+            nodes.add(readOnly.execute(status -> currentNode()));
+
+        assertEquals(new HashSet<>(Arrays.asList("replica-a", "replica-b")), nodes);
+    }
+
+    @Test
+    public void writesAndNonTransactionalWorkGoToPrimary() {
+        assertEquals("primary", readWrite.execute(status -> currentNode()));
+        assertEquals("primary", currentNode());
+    }
+
+    @Test
+    public void clientReadsItsWritesFromPrimaryUntilLagPasses() throws InterruptedException {
+        lagGuard.setCurrentClient("writer");
+        readWrite.execute(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+
+        lagGuard.setCurrentClient("reader");
+        assertEquals(true, readOnly.execute(status -> currentNode()).startsWith("replica"));
+
+        lagGuard.setCurrentClient("writer");
+        Thread.sleep(400);
+        assertEquals(true, readOnly.execute(status -> currentNode()).startsWith("replica"));
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static EmbeddedDatabase node(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(H2)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return database;
+    }
+}
@@ -0,0 +1,95 @@
+package com.space.config;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.service.ShipSecondLevelCache;
+import com.space.service.ShipService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+// The routing as the application uses it: @Transactional service methods on JpaTransactionManager.
+// The embedded replicas are not replicated to, so a ship written to the primary stays invisible
+// to every read that reaches a replica
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("dev")
+@ContextConfiguration(classes = AppConfig.class)
+@TestPropertySource(properties = {"ships.replica.devReplicas=2", "ships.cache.enabled=false"})
+@DirtiesContext
+public class ReadWriteRoutingJpaTest {
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaLagGuard lagGuard;
+
+    @Autowired
+    private ShipSecondLevelCache secondLevelCache;
+
+    @Test
+    public void readOnlyServiceReadsReachReplicasAndWritesThePrimary() {
+        assertTrue(transactionManager instanceof JpaTransactionManager);
+        assertEquals(2, routingDataSource.getReplicaCount());
+
+        Ship ship = shipService.createShip(new Ship("Routed", "Earth", ShipType.MILITARY, new Date(32998274577071L),
+                false, 0.5, 10, 1.0));
+
+        // outside a transaction jdbcTemplate goes to the primary
+        assertEquals(Integer.valueOf(41), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ship", Integer.class));
+
+        // round robin, so both replicas are asked
+        for (int i = 0; i < 4; i++) {
+            assertEquals(40, shipService.countShips(null, null, null, null, null, null,
+                    null, null, null, null, null, null));
+            assertNull(shipService.getShip(ship.getId()));
+        }
+    }
+
+    // a replica never sees client a's write, so a copy of the ship read there would put the old
+    // planet back; POST reads the ship on the primary and writes only the fields it was given
+    @Test
+    public void updateKeepsAnotherClientsConcurrentWrite() {
+        Ship planetChange = new Ship();
+        planetChange.setPlanet("Neptune");
+        Ship nameChange = new Ship();
+        nameChange.setName("Renamed");
+
+        try {
+            lagGuard.setCurrentClient("a");
+            assertTrue(shipService.patchShip(1L, planetChange));
+            // as if another instance, with a second-level cache of its own, had taken the write
+            secondLevelCache.evictShip(1L);
+            lagGuard.setCurrentClient("b");
+            assertEquals("Renamed", shipService.updateShip(1L, nameChange).getName());
+        } finally {
+            lagGuard.clearCurrentClient();
+        }
+
+        assertEquals("Renamed", jdbcTemplate.queryForObject("SELECT name FROM ship WHERE id = 1", String.class));
+        assertEquals("Neptune", jdbcTemplate.queryForObject("SELECT planet FROM ship WHERE id = 1", String.class));
+    }
+}
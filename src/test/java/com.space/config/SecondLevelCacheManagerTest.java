@@ -0,0 +1,33 @@
+package com.space.config;
+
+import com.space.model.Ship;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.cache.CacheManager;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+
+public class SecondLevelCacheManagerTest {
+
+    // two application contexts in one JVM, as in a servlet container or the test runner,
+    // each create the regions on the JVM-wide JCache provider
+    @Test
+    public void everyContextGetsCacheManagerOfItsOwn() {
+        try (CacheManager first = newAppConfig().secondLevelCacheManager();
+             CacheManager second = newAppConfig().secondLevelCacheManager()) {
+            assertNotSame(first, second);
+            assertNotNull(first.getCache(Ship.class.getName()));
+            assertNotNull(second.getCache(Ship.class.getName()));
+        }
+    }
+
+    private AppConfig newAppConfig() {
+        AppConfig appConfig = new AppConfig();
+        ReflectionTestUtils.setField(appConfig, "l2cacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(appConfig, "l2cacheQueryMaximumSize", 100L);
+        ReflectionTestUtils.setField(appConfig, "l2cacheExpireAfterWriteSeconds", 60L);
+        return appConfig;
+    }
+}
@@ -0,0 +1,126 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BatchUpdateTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void markShipsOnPlanetUsed() throws Exception {
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPlanet("Mars", testsHelper.getAllShips());
+
+        String updated = perform(patch("/rest/ships?planet=Mars")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"isUsed\": true}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Не правильное количество обновлённых кораблей при запросе PATCH /rest/ships с параметром planet.",
+                String.valueOf(expected.size()), updated);
+
+        for (ShipInfoTest ship : getShips("/rest/ships?planet=Mars&pageSize=40")) {
+            assertEquals("Не обновлено поле isUsed при запросе PATCH /rest/ships.", true, ship.isUsed);
+            assertEquals("Не пересчитан рейтинг при запросе PATCH /rest/ships.",
+                    rating(ship.speed, true, ship.prodDate), ship.rating);
+        }
+    }
+
+    //test2
+    @Test
+    public void changeSpeedAndProdDateRecomputesRating() throws Exception {
+        long prodDate = 32998274577071L;
+
+        perform(patch("/rest/ships?shipType=MERCHANT&minCrewSize=1000")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\": 0.5, \"prodDate\": " + prodDate + "}"))
+                .andExpect(status().isOk());
+
+        List<ShipInfoTest> ships = getShips("/rest/ships?shipType=MERCHANT&minCrewSize=1000&pageSize=40");
+        assertEquals("Не найдены обновлённые корабли после PATCH /rest/ships.", false, ships.isEmpty());
+        for (ShipInfoTest ship : ships) {
+            assertEquals("Не обновлено поле speed при запросе PATCH /rest/ships.", 0.5, ship.speed);
+            assertEquals("Не пересчитан рейтинг при запросе PATCH /rest/ships.",
+                    rating(0.5, ship.isUsed, prodDate), ship.rating);
+        }
+    }
+
+    //test3
+    @Test
+    public void deleteShipsByFilter() throws Exception {
+        long before = 32503672800000L;
+        int expected = testsHelper.getShipInfosByShipType(ShipType.TRANSPORT,
+                testsHelper.getShipInfosByBefore(before, testsHelper.getAllShips())).size();
+
+        String deleted = perform(delete("/rest/ships?shipType=TRANSPORT&before=" + before))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Не правильное количество удалённых кораблей при запросе DELETE /rest/ships.",
+                String.valueOf(expected), deleted);
+        assertEquals("Не удалены корабли при запросе DELETE /rest/ships.",
+                String.valueOf(testsHelper.getAllShips().size() - expected),
+                perform(get("/rest/ships/count")).andReturn().getResponse().getContentAsString());
+    }
+
+    //test4
+    @Test
+    public void refuseUnfilteredBatch() throws Exception {
+        perform(delete("/rest/ships"))
+                .andExpect(status().isBadRequest());
+        perform(patch("/rest/ships")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"isUsed\": true}"))
+                .andExpect(status().isBadRequest());
+        perform(patch("/rest/ships?planet=Mars")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\": 5}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test5
+    @Test
+    public void refuseBatchWithoutWritableField() throws Exception {
+        for (String body : new String[]{"{}", "{\"rating\": 5}", "{\"id\": 3}"})
+            perform(patch("/rest/ships?planet=Mars")
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .content(body))
+                    .andExpect(status().isBadRequest());
+
+        assertEquals("Изменены корабли после PATCH /rest/ships без изменяемых полей.",
+                testsHelper.getShipInfosByPlanet("Mars", testsHelper.getAllShips()), getShips("/rest/ships?planet=Mars&pageSize=40"));
+    }
+
+    private List<ShipInfoTest> getShips(String url) throws Exception {
+        return mapper.readValue(perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), typeReference);
+    }
+
+    private Double rating(Double speed, Boolean isUsed, Long prodDate) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(new Date(prodDate));
+        double coefficient = isUsed ? 0.5 : 1;
+        return Math.round(80 * speed * coefficient / (3019 - calendar.get(Calendar.YEAR) + 1) * 100) / 100D;
+    }
+}
@@ -0,0 +1,76 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BulkImportTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void importJsonArraySkipsInvalidShips() throws Exception {
+        JsonNode result = importShips(MediaType.APPLICATION_JSON_UTF8,
+                "[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.NO_SPEED_JSON + "," + TestsHelper.NORMAL_JSON + "]");
+
+        assertEquals("Не правильное количество импортированных кораблей при запросе POST /rest/ships/bulk.",
+                2L, result.get("imported").asLong());
+        assertEquals("Не правильное количество отклонённых кораблей при запросе POST /rest/ships/bulk.",
+                1L, result.get("rejected").asLong());
+        assertEquals("Не правильное количество кораблей после POST /rest/ships/bulk.",
+                testsHelper.getAllShips().size() + 2, count());
+
+        ShipInfoTest imported = mapper.readValue(perform(get("/rest/ships/41"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), ShipInfoTest.class);
+        assertEquals("Не правильный рейтинг корабля после POST /rest/ships/bulk.", 12.8, imported.rating);
+    }
+
+    //test2
+    @Test
+    public void importNdjson() throws Exception {
+        JsonNode result = importShips(MediaType.parseMediaType("application/x-ndjson"),
+                TestsHelper.NORMAL_JSON + "\n" + TestsHelper.NORMAL_JSON + "\n" + TestsHelper.NORMAL_JSON + "\n");
+
+        assertEquals("Не правильное количество импортированных кораблей при запросе POST /rest/ships/bulk с NDJSON.",
+                3L, result.get("imported").asLong());
+        assertEquals("Не правильное количество кораблей после POST /rest/ships/bulk с NDJSON.",
+                testsHelper.getAllShips().size() + 3, count());
+    }
+
+    //test3
+    @Test
+    public void importMalformedJson() throws Exception {
+        perform(post("/rest/ships/bulk")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("[" + TestsHelper.NORMAL_JSON + ", {\"name\": "))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode importShips(MediaType contentType, String content) throws Exception {
+        ResultActions resultActions = perform(post("/rest/ships/bulk")
+                .contentType(contentType)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(content))
+                .andExpect(status().isOk());
+
+        return mapper.readTree(resultActions.andReturn().getResponse().getContentAsString());
+    }
+
+    private int count() throws Exception {
+        return Integer.parseInt(perform(get("/rest/ships/count"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
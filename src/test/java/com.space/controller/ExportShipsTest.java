@@ -0,0 +1,154 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPInputStream;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ExportShipsTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void exportNdjsonWithFilter() throws Exception {
+        String content = new String(export(get("/rest/ships/export?format=ndjson&planet=a")).getContentAsByteArray(),
+                StandardCharsets.UTF_8);
+
+        List<ShipInfoTest> actual = new ArrayList<>();
+        for (String line : content.split("\n"))
+            actual.add(mapper.readValue(line, ShipInfoTest.class));
+
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/export с параметрами format=ndjson и planet.",
+                testsHelper.getShipInfosByPlanet("a", testsHelper.getAllShips()), actual);
+    }
+
+    //test2
+    @Test
+    public void exportGzippedCsv() throws Exception {
+        MockHttpServletResponse response = export(get("/rest/ships/export?format=csv")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+
+        assertEquals("Не выставлен Content-Encoding при запросе GET /rest/ships/export с Accept-Encoding: gzip.",
+                "gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        String[] lines = new String(gunzip(response.getContentAsByteArray()), StandardCharsets.UTF_8).split("\n");
+        ShipInfoTest first = testsHelper.getAllShips().get(0);
+
+        assertEquals("Возвращается не правильное количество строк при запросе GET /rest/ships/export с параметром format=csv.",
+                testsHelper.getAllShips().size() + 1, lines.length);
+        assertEquals("Возвращается не правильный заголовок при запросе GET /rest/ships/export с параметром format=csv.",
+                "id,name,planet,shipType,prodDate,isUsed,speed,crewSize,rating", lines[0]);
+        assertEquals("Возвращается не правильная строка при запросе GET /rest/ships/export с параметром format=csv.",
+                first.id + "," + first.name + "," + first.planet + "," + first.shipType + "," + first.prodDate + ","
+                        + first.isUsed + "," + first.speed + "," + first.crewSize + "," + first.rating, lines[1]);
+    }
+
+    //test3
+    @Test
+    public void exportUnknownFormat() throws Exception {
+        mockMvc.perform(get("/rest/ships/export?format=xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test4
+    @Test
+    public void exportHonoursGzipQValue() throws Exception {
+        MockHttpServletResponse refused = export(get("/rest/ships/export?format=csv")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"));
+        assertEquals("Выставлен Content-Encoding при запросе GET /rest/ships/export с Accept-Encoding: gzip;q=0.",
+                null, refused.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Возвращается не правильное количество строк при запросе GET /rest/ships/export с Accept-Encoding: gzip;q=0.",
+                testsHelper.getAllShips().size() + 1,
+                new String(refused.getContentAsByteArray(), StandardCharsets.UTF_8).split("\n").length);
+
+        MockHttpServletResponse any = export(get("/rest/ships/export?format=csv")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, *;q=0.5"));
+        assertEquals("Не выставлен Content-Encoding при запросе GET /rest/ships/export с Accept-Encoding: *;q=0.5.",
+                "gzip", any.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    //test5
+    @Test
+    public void exportHasLongTimeout() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/rest/ships/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals("Не выставлен таймаут при запросе GET /rest/ships/export.",
+                1800000L, asyncResult.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk());
+    }
+
+    //test6
+    @Test
+    public void exportRejectedWhenPoolIsFull() throws Exception {
+        ThreadPoolTaskExecutor executor = context.getBean("streamTaskExecutor", ThreadPoolTaskExecutor.class);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // every thread busy and the queue full; idle threads take a while to pick up their task
+            Runnable blocker = () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+            while (executor.getActiveCount() < executor.getMaxPoolSize()
+                    || executor.getThreadPoolExecutor().getQueue().remainingCapacity() > 0) {
+                try {
+                    executor.execute(blocker);
+                } catch (TaskRejectedException e) {
+                    Thread.yield();
+                }
+            }
+
+            mockMvc.perform(get("/rest/ships/export"))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private MockHttpServletResponse export(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult asyncResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    private byte[] gunzip(byte[] bytes) throws Exception {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read; (read = in.read(buffer)) > 0; )
+                out.write(buffer, 0, read);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Calendar;
+import java.util.Date;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class PatchShipTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void patchShipInvalidIdTest() throws Exception {
+        perform(patch("/rest/ships/0")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\": 10}"))
+                .andExpect(status().isBadRequest());
+        perform(patch("/rest/ships/test")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\": 10}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test2
+    @Test
+    public void patchShipNotExistTest() throws Exception {
+        perform(patch("/rest/ships/415")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\": 10}"))
+                .andExpect(status().isNotFound());
+    }
+
+    //test3
+    @Test
+    public void patchShipInvalidFieldTest() throws Exception {
+        perform(patch("/rest/ships/1")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\": 5}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test5
+    @Test
+    public void patchShipWithoutWritableFieldTest() throws Exception {
+        for (String body : new String[]{"{}", "{\"rating\": 5}", "{\"id\": 3}"})
+            perform(patch("/rest/ships/1")
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .content(body))
+                    .andExpect(status().isBadRequest());
+
+        ShipInfoTest actual = mapper.readValue(perform(get("/rest/ships/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), ShipInfoTest.class);
+        assertEquals("Изменён корабль после PATCH /rest/ships/{id} без изменяемых полей.",
+                testsHelper.getShipInfosById(1), actual);
+    }
+
+    //test4
+    @Test
+    public void patchShipUpdatesOnlyGivenFieldsTest() throws Exception {
+        ShipInfoTest expected = testsHelper.getShipInfosById(1);
+
+        perform(patch("/rest/ships/1")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Patched\", \"speed\": 0.5}"))
+                .andExpect(status().isOk());
+
+        ShipInfoTest actual = mapper.readValue(perform(get("/rest/ships/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), ShipInfoTest.class);
+
+        assertEquals("Не обновлено поле name при запросе PATCH /rest/ships/{id}.", "Patched", actual.name);
+        assertEquals("Не обновлено поле speed при запросе PATCH /rest/ships/{id}.", 0.5, actual.speed);
+        assertEquals("Изменено поле planet, не переданное в запросе PATCH /rest/ships/{id}.", expected.planet, actual.planet);
+        assertEquals("Изменено поле crewSize, не переданное в запросе PATCH /rest/ships/{id}.", expected.crewSize, actual.crewSize);
+        assertEquals("Не пересчитан рейтинг при запросе PATCH /rest/ships/{id}.",
+                rating(0.5, expected.isUsed, expected.prodDate), actual.rating);
+        assertEquals("Обновлённый корабль не найден по новому имени после PATCH /rest/ships/{id}.",
+                "1", perform(get("/rest/ships/count?name=Patched"))
+                        .andReturn().getResponse().getContentAsString());
+    }
+
+    //test6
+    @Test
+    public void patchShipReachesLoadedReadModelsTest() throws Exception {
+        // loads the suggest index, which then follows writes through events
+        perform(get("/rest/ships/suggest?prefix=Pat")).andExpect(status().isOk());
+
+        perform(patch("/rest/ships/1")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Patched\"}"))
+                .andExpect(status().isOk());
+
+        String suggestions = perform(get("/rest/ships/suggest?prefix=Pat"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Подсказки не видят имя, изменённое запросом PATCH /rest/ships/{id}.",
+                "[{\"value\":\"Patched\",\"count\":1}]", suggestions);
+    }
+
+    private Double rating(Double speed, Boolean isUsed, Long prodDate) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(new Date(prodDate));
+        double coefficient = isUsed ? 0.5 : 1;
+        return Math.round(80 * speed * coefficient / (3019 - calendar.get(Calendar.YEAR) + 1) * 100) / 100D;
+    }
+}
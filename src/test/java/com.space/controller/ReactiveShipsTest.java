@@ -0,0 +1,196 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.AppConfig;
+import com.space.config.ReactiveConfig;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import com.space.service.ShipChangedEvent;
+import com.space.service.ShipService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.ContextHierarchy;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("dev")
+@ContextHierarchy({
+        @ContextConfiguration(classes = AppConfig.class),
+        @ContextConfiguration(classes = ReactiveConfig.class)})
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ReactiveShipsTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ShipService shipService;
+
+    private WebTestClient client;
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    @Before
+    public void setup() {
+        // test.sql has just rewritten the table behind the service's back
+        context.publishEvent(ShipChangedEvent.all());
+        client = WebTestClient.bindToApplicationContext(context).build();
+    }
+
+    //test1
+    @Test
+    public void getAllWithFiltersAndOrder() throws Exception {
+        List<ShipInfoTest> actual = mapper.readValue(getJson("/rest/ships?planet=ur&pageSize=4&order=SPEED"), typeReference);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 4,
+                testsHelper.getShipInfosByOrder(ShipOrder.SPEED,
+                        testsHelper.getShipInfosByPlanet("ur", testsHelper.getAllShips())));
+        assertEquals("Возвращается не правильный результат при запросе GET /reactive/rest/ships с параметрами planet, pageSize и order.", expected, actual);
+
+        //after 00:00 01.01.3000
+        //before 00:00 01.01.3011
+        actual = mapper.readValue(getJson("/rest/ships?shipType=MILITARY&after=32503672800000&before=32850741600000&pageNumber=1"), typeReference);
+        expected = testsHelper.getShipInfosByPage(1, 3,
+                testsHelper.getShipInfosByShipType(ShipType.MILITARY,
+                        testsHelper.getShipInfosByAfter(32503672800000L,
+                                testsHelper.getShipInfosByBefore(32850741600000L,
+                                        testsHelper.getAllShips()))));
+        assertEquals("Возвращается не правильный результат при запросе GET /reactive/rest/ships с параметрами shipType, after, before и pageNumber.", expected, actual);
+    }
+
+    //test2
+    @Test
+    public void getAllAsStreamWritesShipPerLine() throws Exception {
+        String body = client.get().uri("/rest/ships?pageSize=40")
+                .accept(MediaType.APPLICATION_STREAM_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_STREAM_JSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        List<ShipInfoTest> actual = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.trim().isEmpty())
+                actual.add(mapper.readValue(line, ShipInfoTest.class));
+        }
+        assertEquals("Возвращается не правильный результат при запросе GET /reactive/rest/ships в формате application/stream+json.",
+                testsHelper.getAllShips(), actual);
+    }
+
+    //test3
+    @Test
+    public void getCount() {
+        client.get().uri("/rest/ships/count?shipType=TRANSPORT&minSpeed=0.3&maxSpeed=0.6")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Integer.class).isEqualTo(testsHelper.getShipInfosByShipType(ShipType.TRANSPORT,
+                        testsHelper.getShipInfosByMinSpeed(0.3,
+                                testsHelper.getShipInfosByMaxSpeed(0.6,
+                                        testsHelper.getAllShips()))).size());
+    }
+
+    //test4
+    @Test
+    public void getShip() throws Exception {
+        ShipInfoTest actual = mapper.readValue(getJson("/rest/ships/7"), ShipInfoTest.class);
+        assertEquals("Возвращается не правильный результат при запросе GET /reactive/rest/ships/{id}.",
+                testsHelper.getShipInfosById(7), actual);
+
+        client.get().uri("/rest/ships/0").exchange().expectStatus().isBadRequest();
+        client.get().uri("/rest/ships/test").exchange().expectStatus().isBadRequest();
+        client.get().uri("/rest/ships/415").exchange().expectStatus().isNotFound();
+    }
+
+    //test5
+    @Test
+    public void createShip() throws Exception {
+        ShipInfoTest expected = new ShipInfoTest(41L, "123456789", "Earth", ShipType.MILITARY, 32998274577071L, true, 0.8, 14, 6.4);
+
+        String body = client.post().uri("/rest/ships")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .syncBody(TestsHelper.IS_USED_TRUE_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertEquals("Возвращается не правильный результат при запросе POST /reactive/rest/ships.",
+                expected, mapper.readValue(body, ShipInfoTest.class));
+        assertEquals("Корабль, созданный через POST /reactive/rest/ships, не виден сервису.",
+                "123456789", shipService.getShip(41L).getName());
+
+        client.post().uri("/rest/ships")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .syncBody(TestsHelper.EMPTY_NAME_JSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    //test6
+    @Test
+    public void updateShip() throws Exception {
+        // cached by Hibernate before the update goes around it
+        shipService.getShip(1L);
+        ShipInfoTest before = testsHelper.getShipInfosById(1);
+
+        String body = client.post().uri("/rest/ships/1")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .syncBody("{\"name\": \"Updated\", \"speed\": 0.5}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+        ShipInfoTest actual = mapper.readValue(body, ShipInfoTest.class);
+
+        assertEquals("Не обновлено поле name при запросе POST /reactive/rest/ships/{id}.", "Updated", actual.name);
+        assertEquals("Изменено поле planet, не переданное в запросе POST /reactive/rest/ships/{id}.", before.planet, actual.planet);
+        assertTrue("Не пересчитан рейтинг при запросе POST /reactive/rest/ships/{id}.", !before.rating.equals(actual.rating));
+        assertEquals("Сервис возвращает корабль до POST /reactive/rest/ships/{id}.", "Updated", shipService.getShip(1L).getName());
+
+        client.post().uri("/rest/ships/1")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .syncBody("{\"speed\": 5}")
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.post().uri("/rest/ships/415")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .syncBody("{\"name\": \"Updated\"}")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    //test7
+    @Test
+    public void deleteShip() {
+        shipService.getShip(2L);
+
+        client.delete().uri("/rest/ships/2").exchange().expectStatus().isOk();
+        client.delete().uri("/rest/ships/2").exchange().expectStatus().isNotFound();
+        client.delete().uri("/rest/ships/test").exchange().expectStatus().isBadRequest();
+
+        assertEquals("Сервис возвращает корабль, удалённый через DELETE /reactive/rest/ships/{id}.", null, shipService.getShip(2L));
+    }
+
+    private String getJson(String uri) {
+        return client.get().uri(uri)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+    }
+}
@@ -0,0 +1,75 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class SearchShipsTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void searchWithoutFiltersReturnsFirstPageAndTotal() throws Exception {
+        ResultActions resultActions = perform(get("/rest/ships/search")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        JsonNode result = mapper.readTree(resultActions.andReturn().getResponse().getContentAsString());
+        List<ShipInfoTest> actual = mapper.convertValue(result.get("ships"), typeReference);
+
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/search.",
+                testsHelper.getShipInfosByPage(0, 3, testsHelper.getAllShips()), actual);
+        assertEquals("Возвращается не правильное количество при запросе GET /rest/ships/search.",
+                (long) testsHelper.getAllShips().size(), result.get("count").asLong());
+    }
+
+    //test2
+    @Test
+    public void searchWithFiltersReturnsPageAndMatchCount() throws Exception {
+        ResultActions resultActions = perform(get("/rest/ships/search?shipType=TRANSPORT&minSpeed=0.3&pageNumber=1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        JsonNode result = mapper.readTree(resultActions.andReturn().getResponse().getContentAsString());
+        List<ShipInfoTest> actual = mapper.convertValue(result.get("ships"), typeReference);
+        List<ShipInfoTest> matched = testsHelper.getShipInfosByShipType(ShipType.TRANSPORT,
+                testsHelper.getShipInfosByMinSpeed(0.3, testsHelper.getAllShips()));
+
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/search с параметрами shipType, minSpeed и pageNumber.",
+                testsHelper.getShipInfosByPage(1, 3, matched), actual);
+        assertEquals("Возвращается не правильное количество при запросе GET /rest/ships/search с параметрами shipType, minSpeed и pageNumber.",
+                (long) matched.size(), result.get("count").asLong());
+    }
+
+    //test3
+    @Test
+    public void fuzzySearchRanksMisspelledNameByDistance() throws Exception {
+        ResultActions resultActions = perform(get("/rest/ships/search?name=Deadalus&fuzzy=true&order=RELEVANCE")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        JsonNode result = mapper.readTree(resultActions.andReturn().getResponse().getContentAsString());
+        List<ShipInfoTest> actual = mapper.convertValue(result.get("ships"), typeReference);
+
+        assertEquals("Не найден корабль по имени с опечаткой при запросе GET /rest/ships/search с параметром fuzzy.",
+                "Daedalus", actual.get(0).name);
+        assertEquals("Возвращается не правильное количество при запросе GET /rest/ships/search с параметром fuzzy.",
+                (long) actual.size(), result.get("count").asLong());
+    }
+}
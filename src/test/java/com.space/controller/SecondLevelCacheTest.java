@@ -0,0 +1,122 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.service.ShipQueryCache;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class SecondLevelCacheTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void repeatedGetIsServedFromCache() throws Exception {
+        getShip(2);
+        long hits = statistics().get("hitCount").asLong();
+
+        getShip(2);
+
+        assertTrue("Повторный запрос GET /rest/ships/{id} не попал в кэш второго уровня.",
+                statistics().get("hitCount").asLong() > hits);
+    }
+
+    //test2
+    @Test
+    public void updateReplacesCachedShip() throws Exception {
+        getShip(2);
+
+        perform(post("/rest/ships/2")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Updated\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals("Из кэша возвращается корабль до POST /rest/ships/{id}.", "Updated", getShip(2).name);
+    }
+
+    //test3
+    @Test
+    public void patchEvictsCachedShip() throws Exception {
+        getShip(2);
+
+        perform(patch("/rest/ships/2")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Patched\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals("Из кэша возвращается корабль до PATCH /rest/ships/{id}.", "Patched", getShip(2).name);
+    }
+
+    //test4
+    @Test
+    public void deleteEvictsCachedShip() throws Exception {
+        getShip(2);
+
+        perform(delete("/rest/ships/2"))
+                .andExpect(status().isOk());
+
+        perform(get("/rest/ships/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    //test5
+    @Test
+    public void singleShipWritesKeepOtherShipsCached() throws Exception {
+        getShip(3);
+
+        perform(patch("/rest/ships/2")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Patched\"}"))
+                .andExpect(status().isOk());
+        perform(delete("/rest/ships/4"))
+                .andExpect(status().isOk());
+        long hits = statistics().get("hitCount").asLong();
+
+        getShip(3);
+
+        assertTrue("PATCH и DELETE /rest/ships/{id} вытесняют из кэша второго уровня другие корабли.",
+                statistics().get("hitCount").asLong() > hits);
+    }
+
+    //test6
+    @Test
+    public void filteredSearchIsServedFromQueryCache() throws Exception {
+        // the result cache in front of the service would answer the repeated search itself
+        ShipQueryCache queryCache = context.getBean(ShipQueryCache.class);
+        ReflectionTestUtils.setField(queryCache, "enabled", false);
+        try {
+            perform(get("/rest/ships/search?planet=ur&pageNumber=1")).andExpect(status().isOk());
+            long hits = statistics().get("queryHitCount").asLong();
+
+            perform(get("/rest/ships/search?planet=ur&pageNumber=1")).andExpect(status().isOk());
+
+            assertTrue("Повторный запрос GET /rest/ships/search с фильтром не попал в кэш запросов.",
+                    statistics().get("queryHitCount").asLong() > hits);
+        } finally {
+            ReflectionTestUtils.setField(queryCache, "enabled", true);
+        }
+    }
+
+    private ShipInfoTest getShip(long id) throws Exception {
+        return mapper.readValue(perform(get("/rest/ships/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), ShipInfoTest.class);
+    }
+
+    private JsonNode statistics() throws Exception {
+        return mapper.readTree(perform(get("/rest/stats/l2cache"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,212 @@
+package com.space.controller;
+
+import com.space.config.AppConfig;
+import com.space.config.ConnectionPoolMetrics;
+import com.space.config.MyWebAppInit;
+import com.space.config.ReadWriteRoutingDataSource;
+import com.space.config.ReplicaLagGuard;
+import com.space.config.VirtualThreads;
+import com.space.config.WebConfig;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.api.Trigger;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Platform pools against virtual threads for a burst of GET /rest/ships/count requests, driven
+// through ShipController and ShipServiceImpl's blocking JPA calls into the dev database. The
+// database sits behind a HikariCP pool sized and timed out like prod (ships.pool.*), and every
+// query on ship takes queryMillis inside H2, which holds its session monitor meanwhile, so a
+// virtual thread running it pins its carrier. The executors keep their configured sizes and
+// timeout. Not part of the regular build, run it on Java 21 with
+//   mvn test -Dtest=ShipRequestExecutorsBenchmark -Dships.benchmark.requests=5000
+// and add -DargLine=-Djdk.tracePinnedThreads=short to see where the carriers get pinned
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("dev")
+@ContextConfiguration(classes = {AppConfig.class, MyWebAppInit.class, WebConfig.class,
+        ShipRequestExecutorsBenchmark.PooledDevDatabase.class})
+@WebAppConfiguration
+@TestPropertySource(properties = "ships.cache.enabled=false")
+public class ShipRequestExecutorsBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(ShipRequestExecutorsBenchmark.class);
+
+    private static final int REQUESTS = Integer.getInteger("ships.benchmark.requests", 2_000);
+    private static final int QUERY_MILLIS = Integer.getInteger("ships.benchmark.queryMillis", 20);
+    private static final int WARM_UP_REQUESTS = 100;
+
+    @Autowired
+    private ShipController shipController;
+
+    @Autowired
+    private ShipRequestExecutors executors;
+
+    @Autowired
+    private ConnectionPoolMetrics poolMetrics;
+
+    @Value("${ships.async.timeoutMillis:10000}")
+    private long timeoutMillis;
+
+    @Test
+    public void platformAgainstVirtualThreads() throws Exception {
+        Assume.assumeTrue("virtual threads need Java 21", VirtualThreads.isSupported());
+
+        run(false, WARM_UP_REQUESTS);
+        run(true, WARM_UP_REQUESTS);
+
+        log.info("{} requests, {} ms per query, {} connections, {} processors", REQUESTS, QUERY_MILLIS,
+                poolMetrics.getStatistics().get("maxConnections"), Runtime.getRuntime().availableProcessors());
+        log.info("platform threads: {}", run(false, REQUESTS));
+        log.info("virtual threads: {}", run(true, REQUESTS));
+    }
+
+    private Result run(boolean virtualThreads, int requests) throws InterruptedException {
+        executors.destroy();
+        ReflectionTestUtils.setField(executors, "virtualThreads", virtualThreads);
+        executors.afterPropertiesSet();
+
+        long timeoutsBefore = (Long) poolMetrics.getStatistics().get("timeoutCount");
+        long[] latencies = new long[requests];
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int request = i;
+            long submitted = System.nanoTime();
+            DeferredResult<ResponseEntity<Integer>> result = shipController.getShipsCount(null, "a", null,
+                    null, null, null, null, null, null, null, null, null, null, null, null);
+            result.setResultHandler(answer -> {
+                latencies[request] = System.nanoTime() - submitted;
+                if (!(answer instanceof ResponseEntity))
+                    failed.incrementAndGet();
+                else if (((ResponseEntity<?>) answer).getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE)
+                    rejected.incrementAndGet();
+                done.countDown();
+            });
+        }
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+
+        long poolTimeouts = (Long) poolMetrics.getStatistics().get("timeoutCount") - timeoutsBefore;
+        return new Result(requests, elapsedNanos, latencies, rejected.get(), failed.get(), poolTimeouts, timeoutMillis);
+    }
+
+    // the dev database of AppConfig, behind the pool prod would use
+    @Configuration
+    static class PooledDevDatabase {
+
+        @Value("${ships.pool.maximumPoolSize:10}")
+        private int maximumPoolSize;
+
+        @Value("${ships.pool.connectionTimeout:30000}")
+        private long connectionTimeout;
+
+        @Bean(destroyMethod = "close")
+        public ReadWriteRoutingDataSource routingDataSourceForTests(ReplicaLagGuard lagGuard, ConnectionPoolMetrics metrics) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("cosmoport-benchmark");
+            config.setJdbcUrl("jdbc:h2:mem:cosmoport-benchmark;DB_CLOSE_DELAY=-1");
+            config.setUsername("sa");
+            config.setMaximumPoolSize(maximumPoolSize);
+            config.setMinimumIdle(maximumPoolSize);
+            config.setConnectionTimeout(connectionTimeout);
+            config.setMetricsTrackerFactory(metrics);
+            HikariDataSource pool = new HikariDataSource(config);
+
+            ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("test.sql"),
+                    new ByteArrayResource(("CREATE TRIGGER ship_query_delay BEFORE SELECT ON ship CALL \""
+                            + QueryDelay.class.getName() + "\"").getBytes(StandardCharsets.UTF_8)));
+            populator.setSqlScriptEncoding("UTF-8");
+            populator.setIgnoreFailedDrops(true);
+            DatabasePopulatorUtils.execute(populator, pool);
+
+            return new ReadWriteRoutingDataSource(pool, Collections.emptyList(), lagGuard);
+        }
+    }
+
+    // fired by H2 once per SELECT on ship, inside the statement
+    public static class QueryDelay implements Trigger {
+
+        @Override
+        public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before, int type) {
+        }
+
+        @Override
+        public void fire(Connection conn, Object[] oldRow, Object[] newRow) {
+            try {
+                Thread.sleep(QUERY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void remove() {
+        }
+    }
+
+    private static class Result {
+
+        private final double requestsPerSecond;
+        private final double p50Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+        private final long overTimeout;
+        private final int rejected;
+        private final int failed;
+        private final long poolTimeouts;
+
+        Result(int requests, long elapsedNanos, long[] latencies, int rejected, int failed, long poolTimeouts,
+               long timeoutMillis) {
+            Arrays.sort(latencies);
+            requestsPerSecond = requests / (elapsedNanos / 1e9);
+            p50Millis = latencies[latencies.length / 2] / 1e6;
+            p99Millis = latencies[(int) (latencies.length * 0.99)] / 1e6;
+            maxMillis = latencies[latencies.length - 1] / 1e6;
+            // the container, which is not running here, would have answered these with 503
+            overTimeout = Arrays.stream(latencies).filter(latency -> latency / 1_000_000 > timeoutMillis).count();
+            this.rejected = rejected;
+            this.failed = failed;
+            this.poolTimeouts = poolTimeouts;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f requests/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms, "
+                            + "rejected %d, past the async timeout %d, failed %d (connection timeouts %d)",
+                    requestsPerSecond, p50Millis, p99Millis, maxMillis, rejected, overTimeout, failed, poolTimeouts);
+        }
+    }
+}
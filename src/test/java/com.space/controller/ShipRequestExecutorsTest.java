@@ -0,0 +1,207 @@
+package com.space.controller;
+
+import com.space.config.ReplicaLagGuard;
+import com.space.config.VirtualThreads;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ShipRequestExecutorsTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final AtomicBoolean interrupted = new AtomicBoolean();
+    private ShipRequestExecutors executors;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        executors = newExecutors(false);
+        mockMvc = MockMvcBuilders.standaloneSetup(new SlowController()).build();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executors.destroy();
+    }
+
+    @Test
+    public void timedOutRequestAnswersServiceUnavailable() throws Exception {
+        MvcResult result = mockMvc.perform(get("/slow"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        timeOut(result);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable());
+        assertEquals(1L, readStatistics().get("timedOutCount"));
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertTrue("a timed-out read is interrupted", interrupted.get());
+    }
+
+    @Test
+    public void timedOutWriteIsNotInterrupted() throws Exception {
+        MvcResult result = mockMvc.perform(post("/slow"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        timeOut(result);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable());
+        assertFalse("the write is still running", finished.await(100, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertFalse("a timed-out write is left to finish its transaction", interrupted.get());
+        assertEquals(1L, writeStatistics().get("timedOutCount"));
+    }
+
+    private static void timeOut(MvcResult result) throws Exception {
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners())
+            listener.onTimeout(new AsyncEvent(asyncContext));
+    }
+
+    @Test
+    public void fullQueueAnswersServiceUnavailable() throws Exception {
+        // one request running, one queued
+        mockMvc.perform(get("/slow")).andExpect(request().asyncStarted());
+        mockMvc.perform(get("/slow")).andExpect(request().asyncStarted());
+
+        MvcResult rejected = mockMvc.perform(get("/slow")).andReturn();
+
+        mockMvc.perform(asyncDispatch(rejected))
+                .andExpect(status().isServiceUnavailable());
+        assertEquals(1L, readStatistics().get("rejectedCount"));
+        assertEquals(1, readStatistics().get("queueDepth"));
+    }
+
+    @Test
+    public void virtualThreadsRunHandlers() throws Exception {
+        Assume.assumeTrue(VirtualThreads.isSupported());
+        executors.destroy();
+        executors = newExecutors(true);
+
+        MvcResult result = mockMvc.perform(get("/thread"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
+    }
+
+    @Test
+    public void virtualThreadsLimitRequestsInFlight() throws Exception {
+        Assume.assumeTrue(VirtualThreads.isSupported());
+        executors.destroy();
+        executors = newExecutors(true);
+
+        mockMvc.perform(get("/slow")).andExpect(request().asyncStarted());
+
+        MvcResult rejected = mockMvc.perform(get("/slow")).andReturn();
+
+        mockMvc.perform(asyncDispatch(rejected))
+                .andExpect(status().isServiceUnavailable());
+        assertEquals(1L, readStatistics().get("rejectedCount"));
+        assertEquals(1, readStatistics().get("activeCount"));
+    }
+
+    private ShipRequestExecutors newExecutors(boolean virtualThreads) {
+        ShipRequestExecutors executors = new ShipRequestExecutors();
+        ReflectionTestUtils.setField(executors, "readThreads", 1);
+        ReflectionTestUtils.setField(executors, "readQueueCapacity", 1);
+        ReflectionTestUtils.setField(executors, "writeThreads", 1);
+        ReflectionTestUtils.setField(executors, "writeQueueCapacity", 1);
+        ReflectionTestUtils.setField(executors, "timeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(executors, "virtualThreads", virtualThreads);
+        ReflectionTestUtils.setField(executors, "virtualMaxConcurrent", 1);
+        ReflectionTestUtils.setField(executors, "lagGuard", new ReplicaLagGuard(1000));
+        executors.afterPropertiesSet();
+        return executors;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readStatistics() {
+        return (Map<String, Object>) executors.getStatistics().get("read");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> writeStatistics() {
+        return (Map<String, Object>) executors.getStatistics().get("write");
+    }
+
+    @RestController
+    public class SlowController {
+
+        @GetMapping("/slow")
+        public DeferredResult<ResponseEntity<String>> slow() {
+            return executors.read(this::awaitRelease);
+        }
+
+        @PostMapping("/slow")
+        public DeferredResult<ResponseEntity<String>> slowWrite() {
+            return executors.write(this::awaitRelease);
+        }
+
+        private ResponseEntity<String> awaitRelease() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+                Thread.currentThread().interrupt();
+            } finally {
+                finished.countDown();
+            }
+            return new ResponseEntity<>("done", HttpStatus.OK);
+        }
+
+        @GetMapping("/thread")
+        public DeferredResult<ResponseEntity<String>> thread() {
+            return executors.read(() -> {
+                try {
+                    Object virtual = Thread.class.getMethod("isVirtual").invoke(Thread.currentThread());
+                    return new ResponseEntity<>(String.valueOf(virtual), HttpStatus.OK);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class StreamShipsTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void streamWholeFleet() throws Exception {
+        List<ShipInfoTest> actual = stream("/rest/ships/stream?pageSize=100000");
+
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/stream с большим pageSize.",
+                testsHelper.getAllShips(), actual);
+    }
+
+    //test2
+    @Test
+    public void streamMatchesGetAllWithFilters() throws Exception {
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(1, 4,
+                testsHelper.getShipInfosByOrder(ShipOrder.RATING,
+                        testsHelper.getShipInfosByMinSpeed(0.3, testsHelper.getAllShips())));
+
+        List<ShipInfoTest> actual = stream("/rest/ships/stream?minSpeed=0.3&order=RATING&pageNumber=1&pageSize=4");
+
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/stream с параметрами minSpeed, order, pageNumber и pageSize.",
+                expected, actual);
+    }
+
+    //test3
+    @Test
+    public void streamRunsOnStreamingPoolWithItsTimeout() throws Exception {
+        ThreadPoolTaskExecutor executor = context.getBean("streamTaskExecutor", ThreadPoolTaskExecutor.class);
+        long tasksBefore = executor.getThreadPoolExecutor().getTaskCount();
+
+        MvcResult asyncResult = mockMvc.perform(get("/rest/ships/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals("Не выставлен таймаут при запросе GET /rest/ships/stream.",
+                1800000L, asyncResult.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk());
+        assertEquals("Запрос GET /rest/ships/stream выполнен не на пуле потоков потоковой выдачи.",
+                tasksBefore + 1, executor.getThreadPoolExecutor().getTaskCount());
+    }
+
+    private List<ShipInfoTest> stream(String url) throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String content = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        return mapper.readValue(content, typeReference);
+    }
+}
@@ -0,0 +1,86 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class SuggestShipsTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void suggestPlanetsRankedByFrequency() throws Exception {
+        List<String> expected = expectedPlanets("m", testsHelper.getAllShips(), 3);
+
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/suggest с параметрами field=PLANET и prefix.",
+                expected, suggest("/rest/ships/suggest?field=PLANET&prefix=M&limit=3"));
+    }
+
+    //test2
+    @Test
+    public void suggestNamesByCaseInsensitivePrefix() throws Exception {
+        List<String> expected = testsHelper.getAllShips().stream()
+                .map(ship -> ship.name)
+                .filter(name -> name.toLowerCase().startsWith("e"))
+                .sorted()
+                .collect(Collectors.toList());
+
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/suggest с параметром prefix.",
+                expected, suggest("/rest/ships/suggest?prefix=e&limit=40"));
+    }
+
+    //test3
+    @Test
+    public void suggestFollowsDeletes() throws Exception {
+        List<ShipInfoTest> ships = new ArrayList<>(testsHelper.getAllShips());
+        suggest("/rest/ships/suggest?field=PLANET&prefix=m");
+
+        perform(delete("/rest/ships/1")).andExpect(status().isOk());
+        ships.removeIf(ship -> ship.id == 1L);
+
+        assertEquals("Подсказки не обновляются после DELETE /rest/ships/{id}.",
+                expectedPlanets("m", ships, 10), suggest("/rest/ships/suggest?field=PLANET&prefix=m"));
+    }
+
+    private List<String> expectedPlanets(String prefix, List<ShipInfoTest> ships, int limit) {
+        Map<String, Long> counts = ships.stream()
+                .map(ship -> ship.planet)
+                .filter(planet -> planet.toLowerCase().startsWith(prefix))
+                .collect(Collectors.groupingBy(planet -> planet, Collectors.counting()));
+
+        return counts.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<String, Long>>comparingLong(Map.Entry::getValue).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private List<String> suggest(String url) throws Exception {
+        ResultActions resultActions = perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        List<String> values = new ArrayList<>();
+        for (JsonNode suggestion : mapper.readTree(resultActions.andReturn().getResponse().getContentAsString()))
+            values.add(suggestion.get("value").asText());
+        return values;
+    }
+}
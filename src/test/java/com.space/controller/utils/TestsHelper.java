@@ -1,11 +1,13 @@
 package com.space.controller.utils;
 
 import com.space.controller.ShipOrder;
+import com.space.model.Ship;
 import com.space.model.ShipType;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 public class TestsHelper {
@@ -380,6 +382,26 @@ public class TestsHelper {
         return result;
     }
 
+    public List<Ship> toShips(List<ShipInfoTest> shipInfos) {
+        List<Ship> ships = new ArrayList<>();
+        for (ShipInfoTest info : shipInfos) {
+            Ship ship = new Ship(info.name, info.planet, info.shipType, new Date(info.prodDate),
+                    info.isUsed, info.speed, info.crewSize, info.rating);
+            ship.setId(info.id);
+            ships.add(ship);
+        }
+        return ships;
+    }
+
+    public List<ShipInfoTest> toShipInfos(List<Ship> ships) {
+        List<ShipInfoTest> infos = new ArrayList<>();
+        for (Ship ship : ships) {
+            infos.add(new ShipInfoTest(ship.getId(), ship.getName(), ship.getPlanet(), ship.getShipType(),
+                    ship.getProdDate().getTime(), ship.getUsed(), ship.getSpeed(), ship.getCrewSize(), ship.getRating()));
+        }
+        return infos;
+    }
+
     public ShipInfoTest getShipInfosById(long id) {
         return allShips.stream().filter(s -> s.id == id).findFirst().orElse(null);
     }
@@ -0,0 +1,179 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ShipColumnIndexTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ShipParallelProcessor parallelProcessor;
+    private ShipColumnIndex index;
+
+    @Before
+    public void setup() {
+        parallelProcessor = new ShipParallelProcessor();
+        ReflectionTestUtils.setField(parallelProcessor, "threshold", 20000);
+        parallelProcessor.afterPropertiesSet();
+
+        index = new ShipColumnIndex();
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "parallelProcessor", parallelProcessor);
+        index.load(testsHelper.toShips(testsHelper.getAllShips()));
+    }
+
+    @After
+    public void tearDown() {
+        parallelProcessor.destroy();
+    }
+
+    @Test
+    public void queryWithoutFilterReturnsFirstPageById() {
+        ShipColumnIndex.Result result = index.query(filter(null, null, null, null, null, null,
+                null, null, null, null, null, null), null, 0, 3);
+
+        assertEquals(40, result.getTotal());
+        assertArrayEquals(new long[]{1, 2, 3}, result.getIds());
+    }
+
+    @Test
+    public void queryByNameOrderedBySpeed() {
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 3,
+                testsHelper.getShipInfosByOrder(ShipOrder.SPEED,
+                        testsHelper.getShipInfosByName("ca", testsHelper.getAllShips())));
+
+        ShipColumnIndex.Result result = index.query(filter("ca", null, null, null, null, null,
+                null, null, null, null, null, null), ShipOrder.SPEED, 0, 3);
+
+        assertArrayEquals(ids(expected), result.getIds());
+    }
+
+    @Test
+    public void queryByAfterBeforeCrewSizeSecondPage() {
+        List<ShipInfoTest> matched = testsHelper.getShipInfosByAfter(32377442400000L,
+                testsHelper.getShipInfosByBefore(32787669600000L,
+                        testsHelper.getShipInfosByMinCrewSize(20,
+                                testsHelper.getShipInfosByMaxCrewSize(1500,
+                                        testsHelper.getAllShips()))));
+
+        ShipColumnIndex.Result result = index.query(filter(null, null, null, 32377442400000L, 32787669600000L, null,
+                null, null, 20, 1500, null, null), ShipOrder.ID, 1, 3);
+
+        assertEquals(matched.size(), result.getTotal());
+        assertArrayEquals(ids(testsHelper.getShipInfosByPage(1, 3, matched)), result.getIds());
+    }
+
+    @Test
+    public void topKSelectionMatchesFullSort() {
+        ShipFilter filter = filter(null, null, null, null, null, null,
+                null, null, null, null, null, null);
+
+        for (ShipOrder order : ShipOrder.values()) {
+            // a window of 3 ships goes through the heap, a window of 40 through the full sort
+            long[] topK = index.query(filter, order, 0, 3).getIds();
+            long[] sorted = Arrays.copyOf(index.query(filter, order, 0, 40).getIds(), 3);
+
+            assertArrayEquals(order.name(), sorted, topK);
+            assertArrayEquals(order.name(), Arrays.copyOfRange(index.query(filter, order, 0, 40).getIds(), 3, 6),
+                    index.query(filter, order, 1, 3).getIds());
+        }
+    }
+
+    // the filter combinations of GetAllTest, replayed against the columns
+    @Test
+    public void queryMatchesGetAllFilters() {
+        assertMatches(testsHelper.getShipInfosByName("ra", testsHelper.getAllShips()),
+                filter("ra", null, null, null, null, null, null, null, null, null, null, null));
+        assertMatches(testsHelper.getShipInfosByPlanet("ur", testsHelper.getAllShips()),
+                filter(null, "ur", null, null, null, null, null, null, null, null, null, null));
+        assertMatches(testsHelper.getShipInfosByShipType(ShipType.MILITARY,
+                testsHelper.getShipInfosByAfter(32503672800000L,
+                        testsHelper.getShipInfosByBefore(32850741600000L,
+                                testsHelper.getAllShips()))),
+                filter(null, null, ShipType.MILITARY, 32503672800000L, 32850741600000L, null,
+                        null, null, null, null, null, null));
+        assertMatches(testsHelper.getShipInfosByShipType(ShipType.TRANSPORT,
+                testsHelper.getShipInfosByMinSpeed(0.3,
+                        testsHelper.getShipInfosByMaxSpeed(0.6,
+                                testsHelper.getAllShips()))),
+                filter(null, null, ShipType.TRANSPORT, null, null, null, 0.3, 0.6, null, null, null, null));
+        assertMatches(testsHelper.getShipInfosByShipType(ShipType.MERCHANT,
+                testsHelper.getShipInfosByMinCrewSize(10,
+                        testsHelper.getShipInfosByMaxCrewSize(1000,
+                                testsHelper.getAllShips()))),
+                filter(null, null, ShipType.MERCHANT, null, null, null, null, null, 10, 1000, null, null));
+        assertMatches(testsHelper.getShipInfosByIsUsed(true,
+                testsHelper.getShipInfosByMinRating(2.,
+                        testsHelper.getShipInfosByMaxRating(4.,
+                                testsHelper.getAllShips()))),
+                filter(null, null, null, null, null, true, null, null, null, null, 2., 4.));
+        assertMatches(testsHelper.getShipInfosByIsUsed(false,
+                testsHelper.getShipInfosByMaxSpeed(0.6,
+                        testsHelper.getShipInfosByMaxRating(7.,
+                                testsHelper.getAllShips()))),
+                filter(null, null, null, null, null, false, null, 0.6, null, null, null, 7.));
+        assertMatches(testsHelper.getShipInfosByAfter(32377442400000L,
+                testsHelper.getShipInfosByBefore(32787669600000L,
+                        testsHelper.getShipInfosByMinCrewSize(20,
+                                testsHelper.getShipInfosByMaxCrewSize(1500,
+                                        testsHelper.getAllShips())))),
+                filter(null, null, null, 32377442400000L, 32787669600000L, null, null, null, 20, 1500, null, null));
+    }
+
+    @Test
+    public void prodDateBoundsAreExclusive() {
+        Ship ship = testsHelper.toShips(testsHelper.getAllShips()).get(0);
+        long prodDate = ship.getProdDate().getTime();
+        long[] shipId = {ship.getId()};
+
+        assertEquals(0, Arrays.stream(index.query(filter(null, null, null, prodDate, null, null,
+                null, null, null, null, null, null), null, 0, 40).getIds()).filter(id -> id == shipId[0]).count());
+        assertEquals(0, Arrays.stream(index.query(filter(null, null, null, null, prodDate, null,
+                null, null, null, null, null, null), null, 0, 40).getIds()).filter(id -> id == shipId[0]).count());
+        assertEquals(1, Arrays.stream(index.query(filter(null, null, null, prodDate - 1, prodDate + 1, null,
+                null, null, null, null, null, null), null, 0, 40).getIds()).filter(id -> id == shipId[0]).count());
+    }
+
+    private void assertMatches(List<ShipInfoTest> expected, ShipFilter filter) {
+        assertEquals(filter.toString(), expected.size(), index.count(filter));
+        assertArrayEquals(filter.toString(), ids(expected), index.query(filter, ShipOrder.ID, 0, 40).getIds());
+    }
+
+    @Test
+    public void eventsKeepColumnsInSync() {
+        Ship ship = testsHelper.toShips(testsHelper.getAllShips()).get(0);
+        ship.setSpeed(0.01);
+        index.onShipChanged(ShipChangedEvent.saved(ship));
+        index.onShipChanged(ShipChangedEvent.deleted(2L));
+
+        ShipColumnIndex.Result result = index.query(filter(null, null, null, null, null, null,
+                null, null, null, null, null, null), ShipOrder.SPEED, 0, 1);
+
+        assertEquals(39, result.getTotal());
+        assertArrayEquals(new long[]{1}, result.getIds());
+    }
+
+    private long[] ids(List<ShipInfoTest> ships) {
+        return ships.stream().mapToLong(ship -> ship.id).toArray();
+    }
+
+    private ShipFilter filter(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+                              Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
+                              Double minRating, Double maxRating) {
+        return new ShipFilter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+    }
+}
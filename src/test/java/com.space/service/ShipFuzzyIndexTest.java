@@ -0,0 +1,78 @@
+package com.space.service;
+
+import com.space.controller.utils.TestsHelper;
+import com.space.model.Ship;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShipFuzzyIndexTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private List<Ship> allShips;
+    private ShipFuzzyIndex index;
+
+    @Before
+    public void setup() {
+        allShips = testsHelper.toShips(testsHelper.getAllShips());
+        index = new ShipFuzzyIndex();
+        index.load(allShips);
+    }
+
+    @Test
+    public void distanceCountsEdits() {
+        assertEquals(0, ShipFuzzyIndex.distance("daedalus", "daedalus"));
+        assertEquals(2, ShipFuzzyIndex.distance("deadalus", "daedalus"));
+        assertEquals(3, ShipFuzzyIndex.distance("kitten", "sitting"));
+        assertEquals(4, ShipFuzzyIndex.distance("", "ship"));
+    }
+
+    @Test
+    public void searchMatchesBruteForce() {
+        String[] queries = {"Deadalus", "orion", "Explorr", "Hermez", "xyz"};
+
+        for (String query : queries) {
+            int maxDistance = ShipFuzzyIndex.maxDistance(query);
+            Map<Long, Integer> expected = new HashMap<>();
+            for (Ship ship : allShips) {
+                int distance = ShipFuzzyIndex.distance(query.toLowerCase(), ship.getName().toLowerCase());
+                if (distance <= maxDistance)
+                    expected.put(ship.getId(), distance);
+            }
+
+            assertEquals(query, expected, index.search(query, maxDistance));
+        }
+    }
+
+    @Test
+    public void eventsKeepTreeInSync() {
+        Ship ship = allShips.get(1);
+        ship.setName("Nautilus");
+        index.onShipChanged(ShipChangedEvent.saved(ship));
+
+        assertTrue(index.search("Daedalus", 2).isEmpty());
+        assertEquals(Integer.valueOf(1), index.search("Nautilos", 2).get(ship.getId()));
+
+        index.onShipChanged(ShipChangedEvent.deleted(ship.getId()));
+        assertTrue(index.search("Nautilus", 2).isEmpty());
+    }
+
+    @Test
+    public void renamesRebuildTreeOnceMostTermsAreDead() {
+        Ship ship = allShips.get(0);
+        for (int i = 0; i < 2 * ShipFuzzyIndex.MIN_REBUILD_TERMS; i++) {
+            ship.setName("Renamed " + i);
+            index.onShipChanged(ShipChangedEvent.saved(ship));
+            assertTrue("dead terms " + index.deadTerms(), index.deadTerms() <= ShipFuzzyIndex.MIN_REBUILD_TERMS);
+        }
+
+        assertEquals(Integer.valueOf(0), index.search(ship.getName(), 2).get(ship.getId()));
+        assertEquals(Integer.valueOf(0), index.search(allShips.get(5).getName(), 0).get(allShips.get(5).getId()));
+    }
+}
@@ -0,0 +1,160 @@
+package com.space.service;
+
+import com.space.config.ReadWriteRoutingDataSource;
+import com.space.config.ReplicaLagGuard;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+public class ShipHedgedReaderTest {
+
+    private static final long SLOW_REPLICA_MILLIS = 300;
+
+    private ReplicaLagGuard lagGuard;
+    private ReadWriteRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ShipHedgedReader reader;
+
+    @Before
+    public void setup() {
+        start(node("slow", SLOW_REPLICA_MILLIS));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        stop();
+    }
+
+    private void start(DataSource slowReplica) {
+        lagGuard = new ReplicaLagGuard(60_000);
+        routingDataSource = new ReadWriteRoutingDataSource(node("primary", 0),
+                Arrays.asList(slowReplica, node("fast", 0)), lagGuard);
+        routingDataSource.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        reader = new ShipHedgedReader();
+        ReflectionTestUtils.setField(reader, "enabled", true);
+        ReflectionTestUtils.setField(reader, "percentile", 95.0);
+        ReflectionTestUtils.setField(reader, "minDelayMillis", 2L);
+        ReflectionTestUtils.setField(reader, "threads", 16);
+        ReflectionTestUtils.setField(reader, "minTimeoutSeconds", 1);
+        ReflectionTestUtils.setField(reader, "routingDataSource", routingDataSource);
+        ReflectionTestUtils.setField(reader, "lagGuard", lagGuard);
+        ReflectionTestUtils.setField(reader, "transactionManager", new DataSourceTransactionManager(dataSource));
+        reader.afterPropertiesSet();
+
+        // reads used to answer within a millisecond
+        for (int i = 0; i < 64; i++)
+            reader.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private void stop() throws Exception {
+        reader.destroy();
+        lagGuard.clearCurrentClient();
+        routingDataSource.close();
+    }
+
+    @Test
+    public void slowReplicaIsOvertakenByHedge() {
+        for (int i = 0; i < 6; i++) {
+            long start = System.nanoTime();
+            String node = reader.read(() -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertEquals("fast", node);
+            assertTrue("waited for the slow replica: " + elapsedMillis + " ms", elapsedMillis < SLOW_REPLICA_MILLIS);
+        }
+
+        Map<String, Object> statistics = reader.getStatistics();
+        assertEquals(6L, statistics.get("reads"));
+        assertTrue((Long) statistics.get("hedgedReads") >= 3);
+        assertTrue((Long) statistics.get("hedgeWins") >= 3);
+    }
+
+    @Test
+    public void attemptStalledInQueryIsTimedOut() throws Exception {
+        stop();
+        start(stallingNode("slow"));
+
+        // round robin: one of the reads starts on the stalling replica
+        for (int i = 0; i < 2; i++)
+            assertEquals("fast", reader.read(() -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class)));
+
+        // the cancelled attempt's statement runs on in the driver until the query timeout stops it
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(reader, "executor");
+        long start = System.nanoTime();
+        while (executor.getActiveCount() > 0 && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10))
+            Thread.sleep(50);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(0, executor.getActiveCount());
+        assertTrue("the stalled attempt ran for " + elapsedMillis + " ms", elapsedMillis < 3000);
+    }
+
+    @Test
+    public void readYourWritesIsNotHedged() {
+        lagGuard.setCurrentClient("writer");
+        lagGuard.recordWrite("writer");
+
+        assertEquals("primary", reader.read(() -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class)));
+        assertEquals(0L, reader.getStatistics().get("reads"));
+    }
+
+    private static DataSource node(String name, long latencyMillis) {
+        DataSource database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(H2)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+
+        // a replica that is slow to hand out connections, as under a GC pause
+        return new DelegatingDataSource(database) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Cancelled", e);
+                }
+                return super.getConnection();
+            }
+        };
+    }
+
+    // a replica whose connections come at once but whose query runs for minutes
+    private static DataSource stallingNode(String name) {
+        DataSource database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(H2)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE node_name (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node_name VALUES (?)", name);
+        jdbcTemplate.execute("CREATE VIEW node AS SELECT name FROM node_name"
+                + " WHERE (SELECT COUNT(*) FROM SYSTEM_RANGE(1, 100000) a, SYSTEM_RANGE(1, 100000) b) > 0");
+        return database;
+    }
+}
@@ -0,0 +1,122 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ShipParallelProcessorTest {
+
+    private static final int FLEET_SIZE = 50_000;
+
+    private ShipParallelProcessor processor;
+    private ShipParallelProcessor sequentialProcessor;
+    private List<Ship> fleet;
+    private int[] speeds;
+
+    @Before
+    public void setup() {
+        processor = newProcessor(1000);
+        sequentialProcessor = newProcessor(Integer.MAX_VALUE);
+
+        Random random = new Random(42);
+        fleet = new ArrayList<>();
+        speeds = new int[FLEET_SIZE];
+        for (int row = 0; row < FLEET_SIZE; row++) {
+            Ship ship = new Ship();
+            ship.setId(row + 1L);
+            ship.setName("Ship " + (row + 1));
+            ship.setPlanet(random.nextBoolean() ? "Mars" : "Earth");
+            ship.setShipType(ShipType.values()[random.nextInt(ShipType.values().length)]);
+            ship.setProdDate(new Date(32000000000000L + random.nextInt(1000) * 86400000L));
+            ship.setUsed(random.nextBoolean());
+            // few distinct speeds, so the stability of the sort is exercised
+            speeds[row] = random.nextInt(100);
+            ship.setSpeed(speeds[row] / 100.0);
+            ship.setCrewSize(1 + random.nextInt(9999));
+            ship.setRating(random.nextInt(1000) / 100.0);
+            fleet.add(ship);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        processor.destroy();
+        sequentialProcessor.destroy();
+    }
+
+    @Test
+    public void parallelFilterKeepsSequentialResultAndOrder() {
+        IntPredicate matcher = row -> speeds[row] % 7 == 0 && fleet.get(row).getUsed();
+
+        int[] expected = IntStream.range(0, FLEET_SIZE).filter(matcher).toArray();
+        assertArrayEquals(expected, processor.filter(FLEET_SIZE, matcher));
+        assertEquals(expected.length, processor.count(FLEET_SIZE, matcher));
+    }
+
+    @Test
+    public void parallelSortIsStable() {
+        Integer[] expected = IntStream.range(0, FLEET_SIZE).boxed().toArray(Integer[]::new);
+        Arrays.sort(expected, Comparator.comparingInt(row -> speeds[row]));
+
+        int[] rows = IntStream.range(0, FLEET_SIZE).toArray();
+        processor.sort(rows, rows.length, (a, b) -> Integer.compare(speeds[a], speeds[b]));
+
+        assertArrayEquals(Arrays.stream(expected).mapToInt(Integer::intValue).toArray(), rows);
+    }
+
+    @Test
+    public void columnIndexAnswersLikeSequentialScan() {
+        ShipColumnIndex parallelIndex = newIndex(processor);
+        ShipColumnIndex sequentialIndex = newIndex(sequentialProcessor);
+        ShipFilter[] filters = {
+                new ShipFilter(null, null, null, null, null, null, null, null, null, null, null, null),
+                new ShipFilter(null, "Mars", ShipType.MILITARY, null, null, true, 0.2, 0.8, null, 5000, null, null),
+                new ShipFilter("1", null, null, null, null, false, null, null, 100, null, 1., 9.)
+        };
+
+        for (ShipFilter filter : filters) {
+            assertEquals(filter.toString(), sequentialIndex.count(filter), parallelIndex.count(filter));
+            for (ShipOrder order : ShipOrder.values()) {
+                // the whole fleet as one page, so the scan and sort are not cut short by top-K selection
+                ShipColumnIndex.Result expected = sequentialIndex.query(filter, order, 0, FLEET_SIZE);
+                ShipColumnIndex.Result actual = parallelIndex.query(filter, order, 0, FLEET_SIZE);
+
+                assertEquals(filter + " " + order, expected.getTotal(), actual.getTotal());
+                assertArrayEquals(filter + " " + order, expected.getIds(), actual.getIds());
+            }
+        }
+    }
+
+    private ShipParallelProcessor newProcessor(int threshold) {
+        ShipParallelProcessor processor = new ShipParallelProcessor();
+        ReflectionTestUtils.setField(processor, "threshold", threshold);
+        ReflectionTestUtils.setField(processor, "parallelism", 4);
+        processor.afterPropertiesSet();
+        return processor;
+    }
+
+    private ShipColumnIndex newIndex(ShipParallelProcessor processor) {
+        ShipColumnIndex index = new ShipColumnIndex();
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "parallelProcessor", processor);
+        index.load(fleet);
+        return index;
+    }
+}
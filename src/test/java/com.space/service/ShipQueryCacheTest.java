@@ -0,0 +1,58 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.ShipFilter;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class ShipQueryCacheTest {
+
+    private ShipQueryCache cache;
+    private AtomicInteger loads = new AtomicInteger();
+
+    @Before
+    public void setup() {
+        cache = new ShipQueryCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(cache, "expireAfterWriteSeconds", 60L);
+        cache.afterPropertiesSet();
+    }
+
+    @Test
+    public void equalParametersShareOneEntry() {
+        assertEquals(1, load(ShipQueryCache.Key.list(filter("ca"), 0, 3, null)));
+        assertEquals(1, load(ShipQueryCache.Key.list(filter("ca"), 0, 3, ShipOrder.ID)));
+        assertEquals(2, load(ShipQueryCache.Key.list(filter("ca"), 1, 3, ShipOrder.ID)));
+        assertEquals(3, load(ShipQueryCache.Key.search(filter("ca"), 0, 3, ShipOrder.ID)));
+        assertEquals(4, load(ShipQueryCache.Key.count(filter("ca"))));
+        assertEquals(4, load(ShipQueryCache.Key.count(filter("ca"))));
+
+        assertEquals(2L, cache.getStatistics().get("hitCount"));
+    }
+
+    @Test
+    public void writesInvalidateEntries() {
+        ShipQueryCache.Key key = ShipQueryCache.Key.count(filter("ca"));
+        assertEquals(1, load(key));
+
+        cache.onShipChanged(ShipChangedEvent.deleted(1L));
+
+        assertEquals(2, load(key));
+        assertEquals(2, load(key));
+    }
+
+    private int load(ShipQueryCache.Key key) {
+        return cache.get(key, () -> loads.incrementAndGet());
+    }
+
+    private ShipFilter filter(String name) {
+        return new ShipFilter(name, null, null, null, null, null,
+                null, null, null, null, null, null);
+    }
+}
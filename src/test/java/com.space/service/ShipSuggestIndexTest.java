@@ -0,0 +1,110 @@
+package com.space.service;
+
+import com.space.controller.ShipSuggestField;
+import com.space.model.Ship;
+import com.space.model.ShipSuggestion;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class ShipSuggestIndexTest {
+
+    private final Random random = new Random(42);
+    private final Map<Long, Ship> ships = new HashMap<>();
+    private ShipSuggestIndex index;
+    private long nextId = 1;
+
+    @Before
+    public void setup() {
+        for (int i = 0; i < 500; i++) {
+            Ship ship = randomShip();
+            ships.put(ship.getId(), ship);
+        }
+        index = new ShipSuggestIndex();
+        index.load(ships.values());
+    }
+
+    @Test
+    public void rankingMatchesFullScanAfterLoad() {
+        assertMatchesFullScan();
+    }
+
+    @Test
+    public void rankingFollowsSavesAndDeletes() {
+        for (int i = 0; i < 300; i++) {
+            if (random.nextInt(3) == 0 && !ships.isEmpty()) {
+                Long id = new ArrayList<>(ships.keySet()).get(random.nextInt(ships.size()));
+                ships.remove(id);
+                index.onShipChanged(ShipChangedEvent.deleted(id));
+            } else {
+                // a new ship, or a rename of an existing one
+                Ship ship = random.nextBoolean() || ships.isEmpty() ? randomShip()
+                        : renamed(new ArrayList<>(ships.values()).get(random.nextInt(ships.size())));
+                ships.put(ship.getId(), ship);
+                index.onShipChanged(ShipChangedEvent.saved(ship));
+            }
+        }
+
+        assertMatchesFullScan();
+    }
+
+    private void assertMatchesFullScan() {
+        for (String prefix : new String[]{"", "a", "ab", "ba", "abc", "zz"}) {
+            for (int limit : new int[]{1, 5, ShipSuggestIndex.MAX_SUGGESTIONS}) {
+                assertEquals("name " + prefix + " " + limit,
+                        fullScan(prefix, limit, true), toStrings(index.suggest(ShipSuggestField.NAME, prefix, limit)));
+                assertEquals("planet " + prefix + " " + limit,
+                        fullScan(prefix, limit, false), toStrings(index.suggest(ShipSuggestField.PLANET, prefix, limit)));
+            }
+        }
+    }
+
+    private List<String> fullScan(String prefix, int limit, boolean byName) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Ship ship : ships.values()) {
+            String value = byName ? ship.getName() : ship.getPlanet();
+            if (value.startsWith(prefix))
+                counts.merge(value, 1, Integer::sum);
+        }
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> toStrings(List<ShipSuggestion> suggestions) {
+        return suggestions.stream()
+                .map(suggestion -> suggestion.getValue() + "=" + suggestion.getCount())
+                .collect(Collectors.toList());
+    }
+
+    private Ship randomShip() {
+        Ship ship = new Ship(randomWord(), randomWord(), null, null, false, 0.5, 10, 1.0);
+        ship.setId(nextId++);
+        return ship;
+    }
+
+    private Ship renamed(Ship ship) {
+        Ship renamed = new Ship(randomWord(), ship.getPlanet(), null, null, false, 0.5, 10, 1.0);
+        renamed.setId(ship.getId());
+        return renamed;
+    }
+
+    // short words over a small alphabet, so prefixes and counts are shared a lot
+    private String randomWord() {
+        StringBuilder word = new StringBuilder();
+        int length = 1 + random.nextInt(4);
+        for (int i = 0; i < length; i++)
+            word.append((char) ('a' + random.nextInt(3)));
+        return word.toString();
+    }
+}
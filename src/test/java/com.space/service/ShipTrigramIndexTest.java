@@ -0,0 +1,102 @@
+package com.space.service;
+
+import com.space.controller.utils.TestsHelper;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShipTrigramIndexTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private List<Ship> allShips;
+    private ShipTrigramIndex index;
+
+    @Before
+    public void setup() {
+        allShips = testsHelper.toShips(testsHelper.getAllShips());
+        index = new ShipTrigramIndex();
+        ReflectionTestUtils.setField(index, "enabled", true);
+        index.load(allShips);
+    }
+
+    @Test
+    public void candidatesContainEveryMatch() {
+        ShipFilter[] filters = {
+                filter("Ent", null),
+                filter("ent", null),
+                filter(null, "Earth"),
+                filter("ion", "ar"),
+                filter("Daedalus", "Mars")
+        };
+
+        for (ShipFilter filter : filters) {
+            Set<Long> candidates = index.candidates(filter);
+            Set<Long> matches = matches(filter);
+
+            assertTrue(filter.toString(), candidates.containsAll(matches));
+        }
+    }
+
+    // under utf8_general_ci 'Élan' LIKE '%elan%' and 'Elan' LIKE '%ÉLAN%' both hold
+    @Test
+    public void accentsAndCaseDoNotNarrowAwayMatches() {
+        Ship accented = allShips.get(0);
+        accented.setName("Élan Vital");
+        Ship plain = allShips.get(1);
+        plain.setName("Elan Vital");
+        index.onShipChanged(ShipChangedEvent.saved(accented));
+        index.onShipChanged(ShipChangedEvent.saved(plain));
+
+        for (String name : new String[]{"elan", "ÉLAN", "Élan", "vîtal", "n V"})
+            assertTrue(name, index.candidates(filter(name, null)).containsAll(
+                    Arrays.asList(accented.getId(), plain.getId())));
+    }
+
+    @Test
+    public void shortPatternsDoNotNarrow() {
+        assertNull(index.candidates(filter("ab", null)));
+        assertNull(index.candidates(filter(null, null)));
+    }
+
+    @Test
+    public void unknownTrigramHasNoCandidates() {
+        assertTrue(index.candidates(filter("zzzq", null)).isEmpty());
+    }
+
+    @Test
+    public void eventsKeepPostingListsInSync() {
+        Ship ship = allShips.get(0);
+        ship.setName("Qwertyship");
+        index.onShipChanged(ShipChangedEvent.saved(ship));
+        index.onShipChanged(ShipChangedEvent.deleted(allShips.get(1).getId()));
+
+        assertEquals(1, index.candidates(filter("wertys", null)).size());
+        assertTrue(index.candidates(filter(null, allShips.get(1).getPlanet())).stream()
+                .noneMatch(id -> id.equals(allShips.get(1).getId())));
+    }
+
+    // what the LIKE filters of ShipSpecifications return
+    private Set<Long> matches(ShipFilter filter) {
+        return allShips.stream()
+                .filter(ship -> filter.getName() == null || ship.getName().contains(filter.getName()))
+                .filter(ship -> filter.getPlanet() == null || ship.getPlanet().contains(filter.getPlanet()))
+                .map(Ship::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private ShipFilter filter(String name, String planet) {
+        return new ShipFilter(name, planet, null, null, null, null,
+                null, null, null, null, null, null);
+    }
+}
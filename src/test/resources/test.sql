@@ -14,6 +14,10 @@ CREATE TABLE ship
     PRIMARY KEY (id)
 );
 
+CREATE INDEX ship_speed_id ON ship (speed, id);
+CREATE INDEX ship_prodDate_id ON ship (prodDate, id);
+CREATE INDEX ship_rating_id ON ship (rating, id);
+
 INSERT INTO ship(name, planet, shipType, prodDate, isUsed, speed, crewSize, rating)
 VALUES ('Orion III', 'Mars', 'MERCHANT', '2995-01-01', true, 0.82, 617, 1.31)
      , ('Daedalus', 'Jupiter', 'MERCHANT', '3001-01-01', true, 0.94, 1619, 1.98)